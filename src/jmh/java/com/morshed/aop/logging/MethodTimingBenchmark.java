@@ -0,0 +1,104 @@
+package com.morshed.aop.logging;
+
+import com.morshed.config.ApplicationProperties;
+import com.morshed.domain.User;
+import com.morshed.repository.UserCache;
+import com.morshed.repository.UserRepository;
+import com.morshed.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.env.StandardEnvironment;
+import reactor.core.publisher.Mono;
+
+/**
+ * Measures the overhead of the aspects on a {@link UserService} call, with debug logging off:
+ * <ul>
+ * <li>{@code none}: the service as is, which is also what {@link MethodTimingAdvisor} leaves when timing is disabled;</li>
+ * <li>{@code logging}: behind the {@link LoggingAspect}, as in the dev profile;</li>
+ * <li>{@code timing}: behind the {@link MethodTimingAdvisor}, which also times the subscription to the returned Mono.</li>
+ * </ul>
+ * The {@link UserRepository} is an in-memory stub answering every lookup with the same user.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MethodTimingBenchmark {
+
+    @Param({ "none", "logging", "timing" })
+    private String aspect;
+
+    private UserService userService;
+
+    @Setup
+    public void setup() {
+        User user = new User();
+        user.setLogin("benchmark-user");
+        Mono<User> result = Mono.just(user);
+        UserRepository userRepository = (UserRepository) Proxy.newProxyInstance(
+            UserRepository.class.getClassLoader(),
+            new Class<?>[] { UserRepository.class },
+            (proxy, method, args) -> {
+                if (method.getName().equals("findOneByLogin")) {
+                    return result;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        );
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getUserCache().setEnabled(false);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserCache userCache = new UserCache(userRepository, applicationProperties, meterRegistry);
+        UserService target = new UserService(null, userCache, null, null, null, null, null, applicationProperties, meterRegistry);
+
+        switch (aspect) {
+            case "none":
+                userService = target;
+                break;
+            case "logging":
+                AspectJProxyFactory aspectJProxyFactory = new AspectJProxyFactory(target);
+                aspectJProxyFactory.setProxyTargetClass(true);
+                aspectJProxyFactory.addAspect(new LoggingAspect(new StandardEnvironment()));
+                userService = aspectJProxyFactory.getProxy();
+                break;
+            case "timing":
+                DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+                beanFactory.registerSingleton("meterRegistry", meterRegistry);
+                MethodTimingAdvisor advisor = new MethodTimingAdvisor(true, beanFactory.getBeanProvider(MeterRegistry.class));
+                if (!AopUtils.canApply(advisor, UserService.class)) {
+                    throw new IllegalStateException("UserService is not timed, check the level of its logger");
+                }
+                ProxyFactory proxyFactory = new ProxyFactory(target);
+                proxyFactory.setProxyTargetClass(true);
+                proxyFactory.addAdvisor(advisor);
+                userService = (UserService) proxyFactory.getProxy();
+                break;
+            default:
+                throw new IllegalArgumentException(aspect);
+        }
+    }
+
+    @Benchmark
+    public User getUserWithAuthoritiesByLogin() {
+        return userService.getUserWithAuthoritiesByLogin("benchmark-user").block();
+    }
+}
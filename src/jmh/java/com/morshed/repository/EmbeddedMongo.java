@@ -0,0 +1,81 @@
+package com.morshed.repository;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.MongodConfig;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.process.runtime.Network;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import org.bson.Document;
+
+/**
+ * Embedded MongoDB for the repository benchmarks, like the integration tests use, with a user collection to fill.
+ */
+final class EmbeddedMongo implements AutoCloseable {
+
+    static final String DATABASE = "dietics-benchmark";
+
+    static final String USER_COLLECTION = "jhi_user";
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private final MongodExecutable mongodExecutable;
+
+    private final MongoClient mongoClient;
+
+    private final String connectionString;
+
+    private EmbeddedMongo(MongodExecutable mongodExecutable, String connectionString) {
+        this.mongodExecutable = mongodExecutable;
+        this.connectionString = connectionString;
+        this.mongoClient = MongoClients.create(connectionString);
+    }
+
+    static EmbeddedMongo start() throws IOException {
+        int port = Network.getFreeServerPort();
+        MongodExecutable mongodExecutable = MongodStarter
+            .getDefaultInstance()
+            .prepare(MongodConfig.builder().version(Version.Main.V4_0).net(new Net(port, Network.localhostIsIPv6())).build());
+        mongodExecutable.start();
+        return new EmbeddedMongo(mongodExecutable, "mongodb://localhost:" + port);
+    }
+
+    String getConnectionString() {
+        return connectionString;
+    }
+
+    MongoCollection<Document> users() {
+        return mongoClient.getDatabase(DATABASE).getCollection(USER_COLLECTION);
+    }
+
+    /**
+     * Inserts the given number of users, in batches.
+     */
+    void insertUsers(int count, IntFunction<Document> user) {
+        MongoCollection<Document> users = users();
+        List<Document> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            batch.add(user.apply(i));
+            if (batch.size() == BATCH_SIZE) {
+                users.insertMany(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            users.insertMany(batch);
+        }
+    }
+
+    @Override
+    public void close() {
+        mongoClient.close();
+        mongodExecutable.stop();
+    }
+}
@@ -0,0 +1,84 @@
+package com.morshed.repository;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.morshed.domain.User;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares looking up a user by email ignoring case, as {@code findOneByEmailIgnoreCase} used to with a
+ * case-insensitive regex on an {@code email} index, with the exact match on the {@code normalized_email} index.
+ * <p>
+ * Runs against an embedded MongoDB, like the integration tests, filled with 1M users at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserEmailLookupBenchmark {
+
+    private static final int USER_COUNT = 1_000_000;
+
+    private EmbeddedMongo mongo;
+
+    private MongoCollection<Document> users;
+
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        mongo = EmbeddedMongo.start();
+        mongo.insertUsers(
+            USER_COUNT,
+            i -> new Document("login", "user-" + i).append("email", email(i)).append(User.NORMALIZED_EMAIL_FIELD, email(i))
+        );
+        users = mongo.users();
+        users.createIndex(Indexes.ascending("email"));
+        users.createIndex(Indexes.ascending(User.NORMALIZED_EMAIL_FIELD));
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongo.close();
+    }
+
+    @Benchmark
+    public Document findByEmailRegexIgnoreCase() {
+        // The query Spring Data derives for an IgnoreCase property
+        String email = email(nextUser());
+        return users.find(Filters.regex("email", "^" + Pattern.quote(email) + "$", "i")).first();
+    }
+
+    @Benchmark
+    public Document findByNormalizedEmail() {
+        String email = email(nextUser());
+        return users.find(Filters.eq(User.NORMALIZED_EMAIL_FIELD, User.normalizeEmail(email))).first();
+    }
+
+    private int nextUser() {
+        // Step through the users with a stride, so consecutive lookups do not hit neighbouring index pages
+        next = (next + 7919) % USER_COUNT;
+        return next;
+    }
+
+    private static String email(int i) {
+        return "user-" + i + "@localhost";
+    }
+}
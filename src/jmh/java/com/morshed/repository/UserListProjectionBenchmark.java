@@ -0,0 +1,158 @@
+package com.morshed.repository;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.morshed.domain.User;
+import com.morshed.security.AuthoritiesConstants;
+import com.morshed.service.dto.AdminUserDTO;
+import com.morshed.service.dto.UserDTO;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Compares reading a page of the public and admin user listings as whole {@link User} documents, as they used to, with
+ * the {@link UserRepository#PUBLIC_LIST_FIELDS} and {@link UserRepository#ADMIN_LIST_FIELDS} projections.
+ * <p>
+ * The {@code bytesPerPage} counter is the size of the BSON documents MongoDB returns for a page, and the heap allocated
+ * per page is the {@code gc.alloc.rate.norm} of the {@code gc} profiler, which the benchmark profile attaches. Runs
+ * against an embedded MongoDB, like the integration tests, filled with 10k users at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserListProjectionBenchmark {
+
+    private static final int USER_COUNT = 10_000;
+
+    private static final PageRequest PAGE = PageRequest.of(10, 20);
+
+    private EmbeddedMongo mongo;
+
+    private MongoClient mongoClient;
+
+    private ReactiveMongoTemplate mongoTemplate;
+
+    private long fullPublicPageBytes;
+
+    private long projectedPublicPageBytes;
+
+    private long fullAdminPageBytes;
+
+    private long projectedAdminPageBytes;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PageSize {
+
+        public long bytesPerPage;
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        mongo = EmbeddedMongo.start();
+        Date now = new Date();
+        mongo.insertUsers(
+            USER_COUNT,
+            i ->
+                new Document("login", "user-" + i)
+                    // A BCrypt hash is 60 characters long
+                    .append("password", "$2a$10$" + String.format("%053d", i))
+                    .append("first_name", "First" + i)
+                    .append("last_name", "Last" + i)
+                    .append("email", "user-" + i + "@localhost")
+                    .append(User.NORMALIZED_EMAIL_FIELD, "user-" + i + "@localhost")
+                    .append("activated", true)
+                    .append("lang_key", "en")
+                    .append("image_url", "http://placehold.it/50x50")
+                    .append("activation_key", String.format("%020d", i))
+                    .append("reset_key", String.format("%020d", i))
+                    .append("reset_date", now)
+                    .append("authorities", Arrays.asList(new Document("_id", AuthoritiesConstants.USER)))
+                    .append("created_by", "system")
+                    .append("created_date", now)
+                    .append("last_modified_by", "system")
+                    .append("last_modified_date", now)
+        );
+
+        mongoClient = MongoClients.create(mongo.getConnectionString());
+        mongoTemplate = new ReactiveMongoTemplate(mongoClient, EmbeddedMongo.DATABASE);
+        fullPublicPageBytes = pageBytes(publicQuery(null));
+        projectedPublicPageBytes = pageBytes(publicQuery(UserRepository.PUBLIC_LIST_FIELDS));
+        fullAdminPageBytes = pageBytes(adminQuery(null));
+        projectedAdminPageBytes = pageBytes(adminQuery(UserRepository.ADMIN_LIST_FIELDS));
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongoClient.close();
+        mongo.close();
+    }
+
+    @Benchmark
+    public List<UserDTO> fullPublicPage(PageSize pageSize) {
+        pageSize.bytesPerPage = fullPublicPageBytes;
+        return mongoTemplate.find(publicQuery(null), User.class).map(UserDTO::new).collectList().block();
+    }
+
+    @Benchmark
+    public List<UserDTO> projectedPublicPage(PageSize pageSize) {
+        pageSize.bytesPerPage = projectedPublicPageBytes;
+        return mongoTemplate.find(publicQuery(UserRepository.PUBLIC_LIST_FIELDS), User.class).map(UserDTO::new).collectList().block();
+    }
+
+    @Benchmark
+    public List<AdminUserDTO> fullAdminPage(PageSize pageSize) {
+        pageSize.bytesPerPage = fullAdminPageBytes;
+        return mongoTemplate.find(adminQuery(null), User.class).map(AdminUserDTO::new).collectList().block();
+    }
+
+    @Benchmark
+    public List<AdminUserDTO> projectedAdminPage(PageSize pageSize) {
+        pageSize.bytesPerPage = projectedAdminPageBytes;
+        return mongoTemplate
+            .find(adminQuery(UserRepository.ADMIN_LIST_FIELDS), User.class)
+            .map(AdminUserDTO::new)
+            .collectList()
+            .block();
+    }
+
+    private long pageBytes(Query query) {
+        return mongoTemplate
+            .find(query, RawBsonDocument.class, EmbeddedMongo.USER_COLLECTION)
+            .map(document -> (long) document.getByteBuffer().remaining())
+            .reduce(0L, Long::sum)
+            .block();
+    }
+
+    private static Query publicQuery(String fields) {
+        return new BasicQuery("{ 'activated': true }", fields == null ? "{}" : fields).with(PAGE);
+    }
+
+    private static Query adminQuery(String fields) {
+        return new BasicQuery("{}", fields == null ? "{}" : fields).with(PAGE);
+    }
+}
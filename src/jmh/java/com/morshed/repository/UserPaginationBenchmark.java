@@ -0,0 +1,106 @@
+package com.morshed.repository;
+
+import com.mongodb.client.model.Indexes;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.morshed.domain.User;
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Compares reading page 10,000 of the user listing sorted by login with page numbers, which skips all the previous
+ * users, and with keyset pagination from the cursor of page 9,999, which seeks on the {@code (login, _id)} index.
+ * <p>
+ * Runs against an embedded MongoDB, like the integration tests, filled with 250k users at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserPaginationBenchmark {
+
+    private static final int USER_COUNT = 250_000;
+
+    private static final int PAGE = 10_000;
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final Sort.Order ORDER = Sort.Order.asc("login");
+
+    private EmbeddedMongo mongo;
+
+    private MongoClient mongoClient;
+
+    private UserRepositoryCustomImpl userRepository;
+
+    private ReactiveMongoTemplate mongoTemplate;
+
+    private UserCursor cursor;
+
+    @Setup
+    public void setup() throws IOException {
+        mongo = EmbeddedMongo.start();
+        Date createdDate = new Date();
+        mongo.insertUsers(
+            USER_COUNT,
+            i ->
+                new Document("login", String.format("user-%06d", i))
+                    .append("email", "user-" + i + "@localhost")
+                    .append("activated", true)
+                    .append("created_date", createdDate)
+        );
+        mongo.users().createIndex(Indexes.ascending("login", "_id"));
+
+        mongoClient = MongoClients.create(mongo.getConnectionString());
+        mongoTemplate = new ReactiveMongoTemplate(mongoClient, EmbeddedMongo.DATABASE);
+        userRepository = new UserRepositoryCustomImpl(mongoTemplate);
+        User lastOfPreviousPage = mongoTemplate
+            .find(new Query().with(PageRequest.of(PAGE - 1, PAGE_SIZE, sort())), User.class)
+            .last()
+            .block();
+        cursor = userRepository.cursorOf(lastOfPreviousPage, ORDER);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongoClient.close();
+        mongo.close();
+    }
+
+    @Benchmark
+    public List<User> offset() {
+        // What the listing did for every page, skipping the 200k previous users
+        Query query = new BasicQuery("{}", UserRepository.ADMIN_LIST_FIELDS).with(PageRequest.of(PAGE, PAGE_SIZE, sort()));
+        return mongoTemplate.find(query, User.class).collectList().block();
+    }
+
+    @Benchmark
+    public List<User> keyset() {
+        return userRepository.findAllAfter(cursor, ORDER, false, PAGE_SIZE, UserRepository.ADMIN_LIST_FIELDS).collectList().block();
+    }
+
+    private static Sort sort() {
+        return Sort.by(ORDER, Sort.Order.asc("id"));
+    }
+}
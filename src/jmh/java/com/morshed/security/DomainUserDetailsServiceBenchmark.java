@@ -0,0 +1,83 @@
+package com.morshed.security;
+
+import com.morshed.config.ApplicationProperties;
+import com.morshed.domain.Authority;
+import com.morshed.domain.User;
+import com.morshed.repository.UserCache;
+import com.morshed.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+import reactor.core.publisher.Mono;
+
+/**
+ * Measures the CPU cost of {@link DomainUserDetailsService#findByUsername(String)} around the database lookup.
+ * <p>
+ * The {@link UserRepository} is an in-memory stub answering every lookup with the same user, so the benchmark runs
+ * without MongoDB and excludes the network round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DomainUserDetailsServiceBenchmark {
+
+    @Param({ "2", "16" })
+    private int authorityCount;
+
+    private DomainUserDetailsService userDetailsService;
+
+    @Setup
+    public void setup() {
+        User user = new User();
+        user.setLogin("benchmark-user");
+        user.setEmail("benchmark-user@localhost");
+        user.setPassword("$2a$10$gSAhZrxMllrbgj/kkK9UceBPpChGWJA7SYIb1Mqo.n5aNLq1/oRrC");
+        user.setActivated(true);
+        for (int i = 0; i < authorityCount; i++) {
+            Authority authority = new Authority();
+            authority.setName(i == 0 ? AuthoritiesConstants.USER : "ROLE_BENCHMARK_" + i);
+            user.getAuthorities().add(authority);
+        }
+        Mono<User> result = Mono.just(user);
+        UserRepository userRepository = (UserRepository) Proxy.newProxyInstance(
+            UserRepository.class.getClassLoader(),
+            new Class<?>[] { UserRepository.class },
+            (proxy, method, args) -> {
+                if (method.getName().equals("findOneByLogin") || method.getName().equals("findOneByEmailIgnoreCase")) {
+                    return result;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        );
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        // The repository stub already answers from memory
+        applicationProperties.getUserCache().setEnabled(false);
+        userDetailsService =
+            new DomainUserDetailsService(userRepository, new UserCache(userRepository, applicationProperties, new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public UserDetails findByLogin() {
+        return userDetailsService.findByUsername("Benchmark-User").block();
+    }
+
+    @Benchmark
+    public UserDetails findByEmail() {
+        return userDetailsService.findByUsername("benchmark-user@localhost").block();
+    }
+}
@@ -0,0 +1,75 @@
+package com.morshed.security.jwt;
+
+import com.morshed.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Measures a request going through {@link JWTFilter}, from reading the {@code Authorization} header to exposing the
+ * {@link SecurityContext} to the rest of the chain.
+ * <p>
+ * A {@code cacheMaxSize} of 0 disables {@link TokenAuthenticationCache}, so every request verifies the token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JWTFilterBenchmark {
+
+    @Param({ "2", "64" })
+    private int authorityCount;
+
+    @Param({ "0", "10000" })
+    private long cacheMaxSize;
+
+    private JWTFilter jwtFilter;
+
+    private String authorizationHeader;
+
+    private final WebFilterChain chain = exchange ->
+        ReactiveSecurityContextHolder.getContext().map(SecurityContext::getAuthentication).then();
+
+    @Setup
+    public void setup() {
+        TokenProvider tokenProvider = JwtBenchmarkSupport.tokenProvider();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().getAuthentication().getJwt().getCache().setMaxSize(cacheMaxSize);
+        jwtFilter =
+            new JWTFilter(
+                new TokenAuthenticationCache(
+                    tokenProvider,
+                    new TokenRevocationList(applicationProperties),
+                    applicationProperties,
+                    new SimpleMeterRegistry()
+                )
+            );
+        authorizationHeader = "Bearer " + tokenProvider.createToken(JwtBenchmarkSupport.authentication(8, authorityCount), false);
+    }
+
+    @Benchmark
+    public Void filter() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("/api/account").header(JWTFilter.AUTHORIZATION_HEADER, authorizationHeader)
+        );
+        return jwtFilter.filter(exchange, chain).block();
+    }
+}
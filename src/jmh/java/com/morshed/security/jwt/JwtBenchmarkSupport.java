@@ -0,0 +1,49 @@
+package com.morshed.security.jwt;
+
+import com.morshed.config.ApplicationProperties;
+import com.morshed.security.AuthoritiesConstants;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Fixtures shared by the JWT benchmarks.
+ */
+final class JwtBenchmarkSupport {
+
+    static final String BASE64_SECRET = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
+
+    private JwtBenchmarkSupport() {}
+
+    static TokenProvider tokenProvider() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(BASE64_SECRET);
+        return new TokenProvider(jHipsterProperties, new ApplicationProperties());
+    }
+
+    /**
+     * Builds an authentication whose token grows with the login length and the number of authorities.
+     *
+     * @param loginLength number of characters of the login, stored in the {@code sub} claim.
+     * @param authorityCount number of authorities, stored in the {@code auth} claim; the first two are the built-in ones.
+     * @return the authentication.
+     */
+    static Authentication authentication(int loginLength, int authorityCount) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN));
+        authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.USER));
+        for (int i = authorities.size(); i < authorityCount; i++) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_BENCHMARK_" + i));
+        }
+        return new UsernamePasswordAuthenticationToken(
+            StringUtils.repeat('u', loginLength),
+            "",
+            authorities.subList(0, Math.max(authorityCount, 1))
+        );
+    }
+}
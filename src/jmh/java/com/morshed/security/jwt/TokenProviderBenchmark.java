@@ -0,0 +1,93 @@
+package com.morshed.security.jwt;
+
+import com.morshed.security.AuthorityRegistry;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Measures {@link TokenProvider#createToken(Authentication, boolean)}, {@link TokenProvider#getAuthentication(String)} and
+ * {@link TokenProvider#resolveToken(String)} for growing token sizes.
+ * <p>
+ * {@link #authoritiesFromClaim()} and {@link #authoritiesFromClaimWithoutRegistry()} isolate the authority resolution
+ * step, comparing the interned registry with splitting the claim on every call. Run with {@code -prof gc} to compare
+ * allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenProviderBenchmark {
+
+    @Param({ "8", "64" })
+    private int loginLength;
+
+    @Param({ "2", "16", "64" })
+    private int authorityCount;
+
+    private TokenProvider tokenProvider;
+
+    private AuthorityRegistry authorityRegistry;
+
+    private Authentication authentication;
+
+    private String authoritiesClaim;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        tokenProvider = JwtBenchmarkSupport.tokenProvider();
+        authorityRegistry = new AuthorityRegistry();
+        authentication = JwtBenchmarkSupport.authentication(loginLength, authorityCount);
+        authoritiesClaim =
+            authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(","));
+        token = tokenProvider.createToken(authentication, false);
+    }
+
+    @Benchmark
+    public String createToken() {
+        return tokenProvider.createToken(authentication, false);
+    }
+
+    @Benchmark
+    public Authentication getAuthentication() {
+        return tokenProvider.getAuthentication(token);
+    }
+
+    @Benchmark
+    public TokenValidationResult resolveToken() {
+        return tokenProvider.resolveToken(token);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> authoritiesFromClaim() {
+        return authorityRegistry.getAuthorities(authoritiesClaim);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> authoritiesFromClaimWithoutRegistry() {
+        return Arrays
+            .stream(authoritiesClaim.split(","))
+            .filter(auth -> !auth.trim().isEmpty())
+            .map(SimpleGrantedAuthority::new)
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,85 @@
+package com.morshed.service;
+
+import com.morshed.domain.OutboxMail;
+import com.morshed.domain.User;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import tech.jhipster.config.JHipsterProperties;
+import tech.jhipster.security.RandomUtil;
+
+/**
+ * Measures rendering {@code mail/activationEmail} for 10k users, as in a wave of registrations, with the template
+ * engine and message source configured as Spring Boot does, with and without the SpEL compiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MailTemplateBenchmark {
+
+    private static final int USERS = 10_000;
+
+    @Param({ "false", "true" })
+    private boolean springElCompiler;
+
+    private MailService mailService;
+
+    private User[] users;
+
+    @Setup
+    public void setup() {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding(StandardCharsets.UTF_8.name());
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setTemplateEngineMessageSource(messageSource);
+        templateEngine.setEnableSpringELCompiler(springElCompiler);
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getMail().setBaseUrl("http://127.0.0.1:8080");
+        // Rendering needs neither a mail server nor the outbox
+        mailService = new MailService(jHipsterProperties, new JavaMailSenderImpl(), messageSource, templateEngine, null, Runnable::run);
+
+        users = new User[USERS];
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setLogin("user" + i);
+            user.setEmail("user" + i + "@localhost");
+            user.setLangKey("en");
+            user.setActivationKey(RandomUtil.generateActivationKey());
+            users[i] = user;
+        }
+    }
+
+    @Benchmark
+    public void renderActivationEmails(Blackhole blackhole) {
+        for (User user : users) {
+            OutboxMail mail = mailService.newMailFromTemplate(user, "mail/activationEmail", "email.activation.title");
+            blackhole.consume(mail);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.morshed.web.rest;
+
+import com.morshed.config.ApplicationProperties;
+import com.morshed.domain.Authority;
+import com.morshed.domain.RefreshToken;
+import com.morshed.domain.User;
+import com.morshed.repository.RefreshTokenRepository;
+import com.morshed.repository.UserCache;
+import com.morshed.repository.UserRepository;
+import com.morshed.security.AuthoritiesConstants;
+import com.morshed.security.DomainUserDetailsService;
+import com.morshed.security.LoginAttemptLimiter;
+import com.morshed.security.jwt.TokenProvider;
+import com.morshed.service.RefreshTokenService;
+import com.morshed.web.rest.vm.LoginVM;
+import com.morshed.web.rest.vm.RefreshTokenVM;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import reactor.core.publisher.Mono;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Compares renewing an access token with {@link UserJWTController#refresh} against a full login with
+ * {@link UserJWTController#authorize}, which verifies the password with BCrypt at strength 10.
+ * <p>
+ * The repositories are in-memory stubs, so the benchmark runs without MongoDB and excludes the network round trips
+ * (one user lookup and one insert for a login; one delete, one user lookup and one insert for a refresh).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenRenewalBenchmark {
+
+    private static final String BASE64_SECRET = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
+
+    private static final String LOGIN = "benchmark-user";
+
+    private static final String PASSWORD = "benchmark-password";
+
+    private UserJWTController userJWTController;
+
+    private LoginVM loginVM;
+
+    private RefreshTokenVM refreshTokenVM;
+
+    @Setup
+    public void setup() {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(10);
+        User user = new User();
+        user.setLogin(LOGIN);
+        user.setEmail(LOGIN + "@localhost");
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.setActivated(true);
+        Authority authority = new Authority();
+        authority.setName(AuthoritiesConstants.USER);
+        user.getAuthorities().add(authority);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setLogin(LOGIN);
+        refreshToken.setExpiresAt(Instant.now().plus(1, ChronoUnit.DAYS));
+
+        Mono<User> userResult = Mono.just(user);
+        UserRepository userRepository = stub(UserRepository.class, (method, args) -> {
+            if (method.equals("findOneByLogin") || method.equals("findOneByEmailIgnoreCase")) {
+                return userResult;
+            }
+            throw new UnsupportedOperationException(method);
+        });
+        Mono<RefreshToken> refreshTokenResult = Mono.just(refreshToken);
+        RefreshTokenRepository refreshTokenRepository = stub(RefreshTokenRepository.class, (method, args) -> {
+            if (method.equals("deleteOneByTokenHash")) {
+                return refreshTokenResult;
+            }
+            if (method.equals("save")) {
+                return Mono.just(args[0]);
+            }
+            throw new UnsupportedOperationException(method);
+        });
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().getLoginRateLimit().setEnabled(false);
+        // The repository stub already answers from memory
+        applicationProperties.getUserCache().setEnabled(false);
+        UserCache userCache = new UserCache(userRepository, applicationProperties, new SimpleMeterRegistry());
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(BASE64_SECRET);
+        UserDetailsRepositoryReactiveAuthenticationManager authenticationManager = new UserDetailsRepositoryReactiveAuthenticationManager(
+            new DomainUserDetailsService(userRepository, userCache)
+        );
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        userJWTController =
+            new UserJWTController(
+                new TokenProvider(jHipsterProperties, applicationProperties),
+                authenticationManager,
+                new LoginAttemptLimiter(applicationProperties, new SimpleMeterRegistry()),
+                new RefreshTokenService(refreshTokenRepository, userRepository, applicationProperties),
+                // Only used to log out
+                null
+            );
+
+        loginVM = new LoginVM();
+        loginVM.setUsername(LOGIN);
+        loginVM.setPassword(PASSWORD);
+        refreshTokenVM = new RefreshTokenVM();
+        refreshTokenVM.setRefreshToken("benchmark-refresh-token");
+    }
+
+    @Benchmark
+    public ResponseEntity<?> authenticate() {
+        return userJWTController.authorize(Mono.just(loginVM), MockServerHttpRequest.post("/api/authenticate").build()).block();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> refresh() {
+        return userJWTController.refresh(Mono.just(refreshTokenVM)).block();
+    }
+
+    private interface StubAnswer {
+        Object answer(String method, Object[] args);
+    }
+
+    private static <T> T stub(Class<T> repositoryClass, StubAnswer answer) {
+        return repositoryClass.cast(
+            Proxy.newProxyInstance(
+                repositoryClass.getClassLoader(),
+                new Class<?>[] { repositoryClass },
+                (proxy, method, args) -> answer.answer(method.getName(), args)
+            )
+        );
+    }
+}
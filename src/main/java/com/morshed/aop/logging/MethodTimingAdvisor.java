@@ -0,0 +1,370 @@
+package com.morshed.aop.logging;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.reactivestreams.Subscription;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.AbstractPointcutAdvisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.StaticMethodMatcher;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxOperator;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoOperator;
+import reactor.util.context.Context;
+
+/**
+ * Advisor timing the execution of service and repository Spring components, and Web REST endpoints, into the
+ * {@code method.timed} Micrometer timer, tagged with the class, the method, the outcome and the exception thrown if any.
+ * <p>
+ * It matches the same methods as {@link LoggingAspect}, and is meant for production where that aspect is off. Whether a
+ * method is timed is decided once, when its bean is proxied: only the methods declared by classes whose logger is
+ * enabled for INFO are timed, so setting the level of a class or package to WARN excludes it. Changing a level
+ * afterwards has no effect until the next restart. The methods which are not timed are not proxied for it, and cost
+ * nothing.
+ * <p>
+ * The methods and classes annotated with {@link Timed} are always timed, into the timer named by the annotation, with
+ * its extra tags, and with a percentile histogram or percentiles when it asks for them.
+ * <p>
+ * A method returning a {@link Mono} or a {@link Flux} is timed from the subscription to the returned publisher until it
+ * completes ({@code outcome=SUCCESS}), fails ({@code outcome=ERROR}) or is cancelled ({@code outcome=CANCELLED}),
+ * rather than while the publisher is assembled. Each subscription is timed, and the number of elements emitted by a
+ * {@link Flux} is recorded into the {@code .elements} distribution summary of the timer.
+ * <p>
+ * The meters are otherwise configured by {@code management.metrics.distribution}, like the others.
+ */
+public class MethodTimingAdvisor extends AbstractPointcutAdvisor {
+
+    public static final String TIMER_NAME = "method.timed";
+
+    public static final String ELEMENTS_SUFFIX = ".elements";
+
+    private static final String NO_EXCEPTION = "none";
+
+    private static final String EXPRESSION =
+        "(within(com.morshed.repository..*) || within(com.morshed.service..*) || within(com.morshed.web.rest..*))" +
+        " && (within(@org.springframework.stereotype.Repository *)" +
+        " || within(@org.springframework.stereotype.Service *)" +
+        " || within(@org.springframework.web.bind.annotation.RestController *))";
+
+    private enum Outcome {
+        SUCCESS,
+        ERROR,
+        CANCELLED,
+    }
+
+    private final boolean enabled;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final Pointcut pointcut;
+
+    private final Advice advice = (MethodInterceptor) this::time;
+
+    private final Map<Method, TimedMethod> timedMethods = new ConcurrentHashMap<>();
+
+    /**
+     * @param enabled whether the methods of the application beans are timed; the methods annotated with {@link Timed}
+     * are timed either way.
+     * @param meterRegistry the registry of the timers, looked up on the first timed call: advisors are created before
+     * the other beans, and the registry would miss its customizations if it were created with them.
+     */
+    public MethodTimingAdvisor(boolean enabled, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.enabled = enabled;
+        this.meterRegistry = meterRegistry;
+        AspectJExpressionPointcut applicationBeans = new AspectJExpressionPointcut();
+        applicationBeans.setExpression(EXPRESSION);
+        this.pointcut =
+            new ComposablePointcut((Pointcut) applicationBeans)
+                .intersection(new LoggerEnabledMatcher())
+                .union(new AnnotationMatchingPointcut(Timed.class, true))
+                .union(new AnnotationMatchingPointcut(null, Timed.class, true));
+    }
+
+    @Override
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    @Override
+    public Advice getAdvice() {
+        return advice;
+    }
+
+    private Object time(MethodInvocation invocation) throws Throwable {
+        TimedMethod timedMethod = timedMethod(invocation.getMethod());
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            timedMethod.record(start, Outcome.ERROR, e);
+            throw e;
+        }
+        if (timedMethod.returnsMono && result instanceof Mono) {
+            return timedMethod.time((Mono<?>) result);
+        }
+        if (timedMethod.returnsFlux && result instanceof Flux) {
+            return timedMethod.time((Flux<?>) result);
+        }
+        timedMethod.record(start, Outcome.SUCCESS, null);
+        return result;
+    }
+
+    private TimedMethod timedMethod(Method method) {
+        TimedMethod timedMethod = timedMethods.get(method);
+        if (timedMethod == null) {
+            timedMethod = timedMethods.computeIfAbsent(method, TimedMethod::new);
+        }
+        return timedMethod;
+    }
+
+    /**
+     * The meters of a method, with its timer for successful calls created up front, and the others when first needed.
+     */
+    private final class TimedMethod {
+
+        private final Timed timed;
+
+        private final String name;
+
+        private final String description;
+
+        private final Tags tags;
+
+        private final boolean returnsMono;
+
+        private final boolean returnsFlux;
+
+        private final Timer succeeded;
+
+        private final Map<Class<? extends Throwable>, Timer> failed = new ConcurrentHashMap<>();
+
+        private volatile Timer cancelled;
+
+        private volatile DistributionSummary elements;
+
+        private TimedMethod(Method method) {
+            Timed timed = AnnotatedElementUtils.findMergedAnnotation(method, Timed.class);
+            if (timed == null) {
+                timed = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), Timed.class);
+            }
+            this.timed = timed;
+            this.name = timed != null && !timed.value().isEmpty() ? timed.value() : TIMER_NAME;
+            this.description = timed != null && !timed.description().isEmpty() ? timed.description() : "Execution of the method";
+            this.tags =
+                Tags
+                    .of("class", method.getDeclaringClass().getSimpleName(), "method", method.getName())
+                    .and(timed != null ? Tags.of(timed.extraTags()) : Tags.empty());
+            // The publisher is wrapped only if the method can return another Mono or Flux than the one it built
+            this.returnsMono = method.getReturnType().isAssignableFrom(Mono.class);
+            this.returnsFlux = method.getReturnType().isAssignableFrom(Flux.class);
+            this.succeeded = timer(Outcome.SUCCESS, NO_EXCEPTION);
+        }
+
+        private <T> Mono<T> time(Mono<T> mono) {
+            return new TimedMono<>(mono, this);
+        }
+
+        private <T> Flux<T> time(Flux<T> flux) {
+            return new TimedFlux<>(flux, this);
+        }
+
+        private void record(long start, Outcome outcome, Throwable e) {
+            Timer timer;
+            if (outcome == Outcome.SUCCESS) {
+                timer = succeeded;
+            } else if (outcome == Outcome.CANCELLED) {
+                timer = cancelled();
+            } else {
+                timer = failed.get(e.getClass());
+                if (timer == null) {
+                    timer = failed.computeIfAbsent(e.getClass(), type -> timer(Outcome.ERROR, type.getSimpleName()));
+                }
+            }
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        private Timer cancelled() {
+            Timer timer = cancelled;
+            if (timer == null) {
+                timer = timer(Outcome.CANCELLED, NO_EXCEPTION);
+                cancelled = timer;
+            }
+            return timer;
+        }
+
+        private Timer timer(Outcome outcome, String exception) {
+            Timer.Builder builder = Timer
+                .builder(name)
+                .description(description)
+                .tags(tags)
+                .tag("outcome", outcome.name())
+                .tag("exception", exception);
+            if (timed != null && timed.histogram()) {
+                builder.publishPercentileHistogram();
+            }
+            if (timed != null && timed.percentiles().length > 0) {
+                builder.publishPercentiles(timed.percentiles());
+            }
+            return builder.register(meterRegistry.getObject());
+        }
+
+        private DistributionSummary elements() {
+            DistributionSummary summary = elements;
+            if (summary == null) {
+                summary =
+                    DistributionSummary
+                        .builder(name + ELEMENTS_SUFFIX)
+                        .description("Elements emitted by the Flux returned by the method")
+                        .tags(tags)
+                        .register(meterRegistry.getObject());
+                elements = summary;
+            }
+            return summary;
+        }
+    }
+
+    private static final class TimedMono<T> extends MonoOperator<T, T> {
+
+        private final TimedMethod timedMethod;
+
+        private TimedMono(Mono<T> source, TimedMethod timedMethod) {
+            super(source);
+            this.timedMethod = timedMethod;
+        }
+
+        @Override
+        public void subscribe(CoreSubscriber<? super T> actual) {
+            source.subscribe(new TimingSubscriber<T>(timedMethod, actual, false));
+        }
+    }
+
+    private static final class TimedFlux<T> extends FluxOperator<T, T> {
+
+        private final TimedMethod timedMethod;
+
+        private TimedFlux(Flux<T> source, TimedMethod timedMethod) {
+            super(source);
+            this.timedMethod = timedMethod;
+        }
+
+        @Override
+        public void subscribe(CoreSubscriber<? super T> actual) {
+            source.subscribe(new TimingSubscriber<T>(timedMethod, actual, true));
+        }
+    }
+
+    /**
+     * Subscriber to the returned publisher, timing the subscription from when it is subscribed to until its first
+     * terminal signal or cancellation.
+     */
+    private static final class TimingSubscriber<T> implements CoreSubscriber<T>, Subscription {
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<TimingSubscriber> DONE = AtomicIntegerFieldUpdater.newUpdater(
+            TimingSubscriber.class,
+            "done"
+        );
+
+        private final TimedMethod timedMethod;
+
+        private final CoreSubscriber<? super T> actual;
+
+        private final boolean flux;
+
+        private Subscription upstream;
+
+        private long start;
+
+        private long count;
+
+        private volatile int done;
+
+        private TimingSubscriber(TimedMethod timedMethod, CoreSubscriber<? super T> actual, boolean flux) {
+            this.timedMethod = timedMethod;
+            this.actual = actual;
+            this.flux = flux;
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual.currentContext();
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            start = System.nanoTime();
+            upstream = subscription;
+            actual.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T element) {
+            count++;
+            if (!flux) {
+                // The value of a Mono is its result: a subscriber such as block() does not wait for the completion
+                done(Outcome.SUCCESS, null);
+            }
+            actual.onNext(element);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            done(Outcome.ERROR, e);
+            actual.onError(e);
+        }
+
+        @Override
+        public void onComplete() {
+            done(Outcome.SUCCESS, null);
+            actual.onComplete();
+        }
+
+        @Override
+        public void request(long n) {
+            upstream.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            done(Outcome.CANCELLED, null);
+            upstream.cancel();
+        }
+
+        private void done(Outcome outcome, Throwable e) {
+            if (DONE.compareAndSet(this, 0, 1)) {
+                timedMethod.record(start, outcome, e);
+                if (flux) {
+                    timedMethod.elements().record(count);
+                }
+            }
+        }
+    }
+
+    private class LoggerEnabledMatcher extends StaticMethodMatcher {
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            // The declaring class rather than the target class, which is a JDK proxy for the Spring Data repositories
+            return enabled && LoggerFactory.getLogger(method.getDeclaringClass()).isInfoEnabled();
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.morshed.config;
 
+import io.jsonwebtoken.SignatureAlgorithm;
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
 
 /**
  * Properties specific to Dietics.
@@ -9,4 +12,653 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Security security = new Security();
+
+    private final UserCache userCache = new UserCache();
+
+    private final UserCount userCount = new UserCount();
+
+    private final UserExport userExport = new UserExport();
+
+    private final UserImport userImport = new UserImport();
+
+    private final UserCleanup userCleanup = new UserCleanup();
+
+    private final MailOutbox mailOutbox = new MailOutbox();
+
+    private final Async async = new Async();
+
+    private final MethodTiming methodTiming = new MethodTiming();
+
+    public Security getSecurity() {
+        return security;
+    }
+
+    public UserCache getUserCache() {
+        return userCache;
+    }
+
+    public UserCount getUserCount() {
+        return userCount;
+    }
+
+    public UserExport getUserExport() {
+        return userExport;
+    }
+
+    public UserImport getUserImport() {
+        return userImport;
+    }
+
+    public UserCleanup getUserCleanup() {
+        return userCleanup;
+    }
+
+    public MailOutbox getMailOutbox() {
+        return mailOutbox;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public MethodTiming getMethodTiming() {
+        return methodTiming;
+    }
+
+    public static class UserCache {
+
+        private boolean enabled = true;
+
+        private long maxSize = 10_000;
+
+        private Duration timeToLive = Duration.ofMinutes(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    public static class UserCount {
+
+        private boolean estimated = true;
+
+        private Duration timeToLive = Duration.ofSeconds(30);
+
+        public boolean isEstimated() {
+            return estimated;
+        }
+
+        public void setEstimated(boolean estimated) {
+            this.estimated = estimated;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    public static class UserExport {
+
+        private int batchSize = 500;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class UserImport {
+
+        private int chunkSize = 500;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class UserCleanup {
+
+        private int chunkSize = 500;
+
+        private int concurrency = 2;
+
+        private boolean ttlIndex = false;
+
+        private String cron = "0 0 1 * * ?";
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public boolean isTtlIndex() {
+            return ttlIndex;
+        }
+
+        public void setTtlIndex(boolean ttlIndex) {
+            this.ttlIndex = ttlIndex;
+        }
+
+        public String getCron() {
+            return cron;
+        }
+
+        public void setCron(String cron) {
+            this.cron = cron;
+        }
+    }
+
+    public static class MailOutbox {
+
+        private boolean enabled = true;
+
+        private Duration pollInterval = Duration.ofSeconds(5);
+
+        private int batchSize = 50;
+
+        private int maxAttempts = 8;
+
+        private Duration initialBackoff = Duration.ofSeconds(30);
+
+        private Duration maxBackoff = Duration.ofHours(1);
+
+        private Duration claimTimeout = Duration.ofMinutes(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public Duration getClaimTimeout() {
+            return claimTimeout;
+        }
+
+        public void setClaimTimeout(Duration claimTimeout) {
+            this.claimTimeout = claimTimeout;
+        }
+    }
+
+    public static class Async {
+
+        private final Pool mail = new Pool();
+
+        public Pool getMail() {
+            return mail;
+        }
+
+        public static class Pool {
+
+            private int coreSize = 4;
+
+            private int maxSize = 4;
+
+            private int queueCapacity = 1000;
+
+            private Duration keepAlive = Duration.ofSeconds(60);
+
+            private RejectionPolicy rejectionPolicy = RejectionPolicy.ABORT;
+
+            private boolean virtualThreads = false;
+
+            public int getCoreSize() {
+                return coreSize;
+            }
+
+            public void setCoreSize(int coreSize) {
+                this.coreSize = coreSize;
+            }
+
+            public int getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(int maxSize) {
+                this.maxSize = maxSize;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public Duration getKeepAlive() {
+                return keepAlive;
+            }
+
+            public void setKeepAlive(Duration keepAlive) {
+                this.keepAlive = keepAlive;
+            }
+
+            public RejectionPolicy getRejectionPolicy() {
+                return rejectionPolicy;
+            }
+
+            public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+                this.rejectionPolicy = rejectionPolicy;
+            }
+
+            public boolean isVirtualThreads() {
+                return virtualThreads;
+            }
+
+            public void setVirtualThreads(boolean virtualThreads) {
+                this.virtualThreads = virtualThreads;
+            }
+        }
+
+        public enum RejectionPolicy {
+            /**
+             * Fail the submission with a {@link java.util.concurrent.RejectedExecutionException}.
+             */
+            ABORT,
+            /**
+             * Run the task on the submitting thread, which must then be allowed to block.
+             */
+            CALLER_RUNS,
+            /**
+             * Drop the task, with a warning.
+             */
+            DISCARD,
+        }
+    }
+
+    public static class MethodTiming {
+
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class Security {
+
+        private final Authentication authentication = new Authentication();
+
+        private final PasswordHashing passwordHashing = new PasswordHashing();
+
+        private final LoginRateLimit loginRateLimit = new LoginRateLimit();
+
+        public Authentication getAuthentication() {
+            return authentication;
+        }
+
+        public PasswordHashing getPasswordHashing() {
+            return passwordHashing;
+        }
+
+        public LoginRateLimit getLoginRateLimit() {
+            return loginRateLimit;
+        }
+
+        public static class LoginRateLimit {
+
+            private boolean enabled = true;
+
+            private long maxKeys = 100_000;
+
+            private final Bucket perLogin = new Bucket(5, Duration.ofMinutes(1));
+
+            private final Bucket perIp = new Bucket(100, Duration.ofSeconds(1));
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getMaxKeys() {
+                return maxKeys;
+            }
+
+            public void setMaxKeys(long maxKeys) {
+                this.maxKeys = maxKeys;
+            }
+
+            public Bucket getPerLogin() {
+                return perLogin;
+            }
+
+            public Bucket getPerIp() {
+                return perIp;
+            }
+
+            public static class Bucket {
+
+                private int capacity;
+
+                private Duration refillPeriod;
+
+                Bucket(int capacity, Duration refillPeriod) {
+                    this.capacity = capacity;
+                    this.refillPeriod = refillPeriod;
+                }
+
+                public int getCapacity() {
+                    return capacity;
+                }
+
+                public void setCapacity(int capacity) {
+                    this.capacity = capacity;
+                }
+
+                public Duration getRefillPeriod() {
+                    return refillPeriod;
+                }
+
+                public void setRefillPeriod(Duration refillPeriod) {
+                    this.refillPeriod = refillPeriod;
+                }
+            }
+        }
+
+        public static class PasswordHashing {
+
+            private int poolSize = Runtime.getRuntime().availableProcessors();
+
+            private int queueCapacity = 100;
+
+            private Duration retryAfter = Duration.ofSeconds(1);
+
+            private String encoder = "bcrypt";
+
+            private Integer bcryptStrength;
+
+            private Duration targetDuration = Duration.ofMillis(100);
+
+            public int getPoolSize() {
+                return poolSize;
+            }
+
+            public void setPoolSize(int poolSize) {
+                this.poolSize = poolSize;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public Duration getRetryAfter() {
+                return retryAfter;
+            }
+
+            public void setRetryAfter(Duration retryAfter) {
+                this.retryAfter = retryAfter;
+            }
+
+            public String getEncoder() {
+                return encoder;
+            }
+
+            public void setEncoder(String encoder) {
+                this.encoder = encoder;
+            }
+
+            public Integer getBcryptStrength() {
+                return bcryptStrength;
+            }
+
+            public void setBcryptStrength(Integer bcryptStrength) {
+                this.bcryptStrength = bcryptStrength;
+            }
+
+            public Duration getTargetDuration() {
+                return targetDuration;
+            }
+
+            public void setTargetDuration(Duration targetDuration) {
+                this.targetDuration = targetDuration;
+            }
+        }
+
+        public static class Authentication {
+
+            private final Jwt jwt = new Jwt();
+
+            private final RefreshToken refreshToken = new RefreshToken();
+
+            private final Revocation revocation = new Revocation();
+
+            public Jwt getJwt() {
+                return jwt;
+            }
+
+            public RefreshToken getRefreshToken() {
+                return refreshToken;
+            }
+
+            public Revocation getRevocation() {
+                return revocation;
+            }
+
+            public static class Revocation {
+
+                private Duration pollInterval = Duration.ofSeconds(5);
+
+                private boolean changeStream = false;
+
+                private Duration rebuildInterval = Duration.ofHours(1);
+
+                private int expectedRevocations = 10_000;
+
+                private double falsePositiveProbability = 0.01;
+
+                public Duration getPollInterval() {
+                    return pollInterval;
+                }
+
+                public void setPollInterval(Duration pollInterval) {
+                    this.pollInterval = pollInterval;
+                }
+
+                public boolean isChangeStream() {
+                    return changeStream;
+                }
+
+                public void setChangeStream(boolean changeStream) {
+                    this.changeStream = changeStream;
+                }
+
+                public Duration getRebuildInterval() {
+                    return rebuildInterval;
+                }
+
+                public void setRebuildInterval(Duration rebuildInterval) {
+                    this.rebuildInterval = rebuildInterval;
+                }
+
+                public int getExpectedRevocations() {
+                    return expectedRevocations;
+                }
+
+                public void setExpectedRevocations(int expectedRevocations) {
+                    this.expectedRevocations = expectedRevocations;
+                }
+
+                public double getFalsePositiveProbability() {
+                    return falsePositiveProbability;
+                }
+
+                public void setFalsePositiveProbability(double falsePositiveProbability) {
+                    this.falsePositiveProbability = falsePositiveProbability;
+                }
+            }
+
+            public static class RefreshToken {
+
+                private Duration tokenValidity = Duration.ofDays(1);
+
+                private Duration tokenValidityForRememberMe = Duration.ofDays(30);
+
+                public Duration getTokenValidity() {
+                    return tokenValidity;
+                }
+
+                public void setTokenValidity(Duration tokenValidity) {
+                    this.tokenValidity = tokenValidity;
+                }
+
+                public Duration getTokenValidityForRememberMe() {
+                    return tokenValidityForRememberMe;
+                }
+
+                public void setTokenValidityForRememberMe(Duration tokenValidityForRememberMe) {
+                    this.tokenValidityForRememberMe = tokenValidityForRememberMe;
+                }
+            }
+
+            public static class Jwt {
+
+                private SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.HS512;
+
+                private Resource publicKey;
+
+                private Resource privateKey;
+
+                private final Cache cache = new Cache();
+
+                public SignatureAlgorithm getSignatureAlgorithm() {
+                    return signatureAlgorithm;
+                }
+
+                public void setSignatureAlgorithm(SignatureAlgorithm signatureAlgorithm) {
+                    this.signatureAlgorithm = signatureAlgorithm;
+                }
+
+                public Resource getPublicKey() {
+                    return publicKey;
+                }
+
+                public void setPublicKey(Resource publicKey) {
+                    this.publicKey = publicKey;
+                }
+
+                public Resource getPrivateKey() {
+                    return privateKey;
+                }
+
+                public void setPrivateKey(Resource privateKey) {
+                    this.privateKey = privateKey;
+                }
+
+                public Cache getCache() {
+                    return cache;
+                }
+
+                public static class Cache {
+
+                    private long maxSize = 10_000;
+
+                    public long getMaxSize() {
+                        return maxSize;
+                    }
+
+                    public void setMaxSize(long maxSize) {
+                        this.maxSize = maxSize;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,46 +1,185 @@
 package com.morshed.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.aop.interceptor.SimpleAsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.task.TaskExecutionProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import tech.jhipster.async.ExceptionHandlingAsyncTaskExecutor;
 
+/**
+ * Executors: the default {@code @Async} {@code taskExecutor}, sized by {@code spring.task.execution}, and one executor
+ * per workload, sized by {@code application.async}, so that a burst of one kind of task cannot delay the others.
+ * <p>
+ * The pools have a bounded queue, and only grow past their core size once it is full: they should be given a core size
+ * close to their maximum size, and a queue that absorbs bursts without hiding a backlog. Tasks submitted to a saturated
+ * executor are handled by its rejection policy.
+ * <p>
+ * Active threads, queue depth and task latency are exported through the Micrometer {@code executor.*} metrics, and
+ * rejected tasks through {@code executor.rejected}, all tagged with the executor name.
+ */
 @Configuration
 @EnableAsync
 @EnableScheduling
 public class AsyncConfiguration implements AsyncConfigurer {
 
+    public static final String MAIL_EXECUTOR = "mailExecutor";
+
     private final Logger log = LoggerFactory.getLogger(AsyncConfiguration.class);
 
     private final TaskExecutionProperties taskExecutionProperties;
 
-    public AsyncConfiguration(TaskExecutionProperties taskExecutionProperties) {
+    private final ApplicationProperties applicationProperties;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final List<ExecutorService> executors = new CopyOnWriteArrayList<>();
+
+    // The meter registry is looked up when the executors are created: asking for it in the constructor would create it
+    // before it can be customized, as async configurers are created early.
+    public AsyncConfiguration(
+        TaskExecutionProperties taskExecutionProperties,
+        ApplicationProperties applicationProperties,
+        ObjectProvider<MeterRegistry> meterRegistry
+    ) {
         this.taskExecutionProperties = taskExecutionProperties;
+        this.applicationProperties = applicationProperties;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
     @Bean(name = "taskExecutor")
     public Executor getAsyncExecutor() {
-        log.debug("Creating Async Task Executor");
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(taskExecutionProperties.getPool().getCoreSize());
-        executor.setMaxPoolSize(taskExecutionProperties.getPool().getMaxSize());
-        executor.setQueueCapacity(taskExecutionProperties.getPool().getQueueCapacity());
-        executor.setThreadNamePrefix(taskExecutionProperties.getThreadNamePrefix());
-        return new ExceptionHandlingAsyncTaskExecutor(executor);
+        TaskExecutionProperties.Pool pool = taskExecutionProperties.getPool();
+        ApplicationProperties.Async.Pool properties = new ApplicationProperties.Async.Pool();
+        properties.setCoreSize(pool.getCoreSize());
+        properties.setMaxSize(pool.getMaxSize());
+        properties.setQueueCapacity(pool.getQueueCapacity());
+        properties.setKeepAlive(pool.getKeepAlive());
+        return newExecutor("task", taskExecutionProperties.getThreadNamePrefix(), properties);
+    }
+
+    /**
+     * Executor rendering the emails, and sending them when the outbox is disabled, see
+     * {@link com.morshed.service.MailService}, which handles the tasks it rejects.
+     */
+    @Bean(name = MAIL_EXECUTOR)
+    public Executor mailExecutor() {
+        ApplicationProperties.Async.Pool mail = applicationProperties.getAsync().getMail();
+        if (mail.getRejectionPolicy() != ApplicationProperties.Async.RejectionPolicy.ABORT) {
+            // Running the task would block an event loop thread, and discarding it would never complete the request
+            throw new IllegalStateException("The mail executor only supports the 'abort' rejection policy");
+        }
+        return newExecutor("mail", "mail-", mail);
     }
 
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return new SimpleAsyncUncaughtExceptionHandler();
     }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executors.forEach(ExecutorService::shutdown);
+        Duration awaitTermination = taskExecutionProperties.getShutdown().getAwaitTerminationPeriod();
+        if (awaitTermination == null) {
+            return;
+        }
+        long deadline = System.nanoTime() + awaitTermination.toNanos();
+        for (ExecutorService executor : executors) {
+            if (!executor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                log.warn("Executor {} did not terminate in {} ms", executor, awaitTermination.toMillis());
+            }
+        }
+    }
+
+    Executor newExecutor(String name, String threadNamePrefix, ApplicationProperties.Async.Pool properties) {
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        ExecutorService executor = properties.isVirtualThreads() ? newVirtualThreadExecutor(name) : null;
+        if (executor == null) {
+            log.debug(
+                "Creating {} executor with {} to {} threads and a queue of {} tasks",
+                name,
+                properties.getCoreSize(),
+                properties.getMaxSize(),
+                properties.getQueueCapacity()
+            );
+            Counter rejected = Counter
+                .builder("executor.rejected")
+                .description("Tasks rejected by a saturated executor")
+                .tag("name", name)
+                .register(registry);
+            executor =
+                new ThreadPoolExecutor(
+                    properties.getCoreSize(),
+                    properties.getMaxSize(),
+                    properties.getKeepAlive().toMillis(),
+                    TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                    new CustomizableThreadFactory(threadNamePrefix),
+                    rejectionHandler(name, properties.getRejectionPolicy(), rejected)
+                );
+        }
+        executors.add(executor);
+        return new ExceptionHandlingAsyncTaskExecutor(new ConcurrentTaskExecutor(ExecutorServiceMetrics.monitor(registry, executor, name)));
+    }
+
+    /**
+     * Returns an executor starting a virtual thread per task, or {@code null} when the JDK does not have virtual threads.
+     * <p>
+     * Virtual threads suit tasks blocking on I/O: there is no pool to size, so the number of tasks running at once is
+     * bounded only by the resources they wait for. Only the task latency is exported for this executor.
+     */
+    private ExecutorService newVirtualThreadExecutor(String name) {
+        try {
+            // Java 21, while the application is compiled for Java 11
+            ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            log.debug("Creating {} executor with virtual threads", name);
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            log.warn("Virtual threads are not available on Java {}, using a thread pool for the {} executor", Runtime.version(), name);
+            return null;
+        }
+    }
+
+    private RejectedExecutionHandler rejectionHandler(String name, ApplicationProperties.Async.RejectionPolicy policy, Counter rejected) {
+        RejectedExecutionHandler handler;
+        switch (policy) {
+            case CALLER_RUNS:
+                handler = new ThreadPoolExecutor.CallerRunsPolicy();
+                break;
+            case DISCARD:
+                handler = (task, executor) -> log.warn("The {} executor is saturated, discarding a task", name);
+                break;
+            default:
+                handler = new ThreadPoolExecutor.AbortPolicy();
+        }
+        return (task, executor) -> {
+            rejected.increment();
+            handler.rejectedExecution(task, executor);
+        };
+    }
 }
@@ -1,6 +1,9 @@
 package com.morshed.config;
 
 import com.morshed.aop.logging.LoggingAspect;
+import com.morshed.aop.logging.MethodTimingAdvisor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.*;
 import org.springframework.core.env.Environment;
 import tech.jhipster.config.JHipsterConstants;
@@ -14,4 +17,12 @@ public class LoggingAspectConfiguration {
     public LoggingAspect loggingAspect(Environment env) {
         return new LoggingAspect(env);
     }
+
+    @Bean
+    public MethodTimingAdvisor methodTimingAdvisor(
+        ApplicationProperties applicationProperties,
+        ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        return new MethodTimingAdvisor(applicationProperties.getMethodTiming().isEnabled(), meterRegistry);
+    }
 }
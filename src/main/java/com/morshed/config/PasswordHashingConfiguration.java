@@ -0,0 +1,139 @@
+package com.morshed.config;
+
+import com.morshed.security.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Password hashing: the {@link PasswordEncoder} and the dedicated {@link Scheduler} it runs on.
+ * <p>
+ * New hashes are produced by the configured encoder and prefixed with its id, as in {@code {bcrypt}$2a$12$...}.
+ * Hashes without a prefix are treated as BCrypt. The BCrypt cost is either configured, or calibrated at startup so
+ * that one hash takes about {@code target-duration} on the current hardware. Hashes from another encoder or with a
+ * lower cost are upgraded on the next successful login, see
+ * {@link com.morshed.security.DomainUserDetailsService#updatePassword}.
+ * <p>
+ * BCrypt is CPU-bound, so the pool is sized to the number of processors, with a bounded queue. When the queue is full,
+ * work is rejected immediately with a {@link PasswordHashingRejectedException} instead of queuing up
+ * behind other blocking tasks on {@link Schedulers#boundedElastic()}.
+ * <p>
+ * Queue depth, active threads and hashing latency are exported through the Micrometer {@code executor.*} metrics,
+ * tagged with {@code name=passwordHashing}.
+ */
+@Configuration
+public class PasswordHashingConfiguration {
+
+    public static final String PASSWORD_HASHING_SCHEDULER = "passwordHashingScheduler";
+
+    private static final String EXECUTOR_NAME = "passwordHashing";
+
+    static final String BCRYPT = "bcrypt";
+
+    static final String PBKDF2 = "pbkdf2";
+
+    static final String ARGON2 = "argon2";
+
+    /**
+     * Spring Security's default cost, never calibrated below.
+     */
+    static final int MIN_BCRYPT_STRENGTH = 10;
+
+    static final int MAX_BCRYPT_STRENGTH = 31;
+
+    private static final int CALIBRATION_STRENGTH = 8;
+
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    private final Logger log = LoggerFactory.getLogger(PasswordHashingConfiguration.class);
+
+    @Bean(name = PASSWORD_HASHING_SCHEDULER, destroyMethod = "dispose")
+    public Scheduler passwordHashingScheduler(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Security.PasswordHashing passwordHashing = applicationProperties.getSecurity().getPasswordHashing();
+        log.debug(
+            "Creating password hashing scheduler with {} threads and a queue of {} tasks",
+            passwordHashing.getPoolSize(),
+            passwordHashing.getQueueCapacity()
+        );
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            passwordHashing.getPoolSize(),
+            passwordHashing.getPoolSize(),
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(passwordHashing.getQueueCapacity()),
+            new CustomizableThreadFactory("password-hashing-"),
+            (task, rejectingExecutor) -> {
+                throw new PasswordHashingRejectedException("The password hashing queue is full");
+            }
+        );
+        return Schedulers.fromExecutorService(ExecutorServiceMetrics.monitor(meterRegistry, executor, EXECUTOR_NAME), EXECUTOR_NAME);
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder(ApplicationProperties applicationProperties) {
+        ApplicationProperties.Security.PasswordHashing passwordHashing = applicationProperties.getSecurity().getPasswordHashing();
+        int bcryptStrength = passwordHashing.getBcryptStrength() != null
+            ? passwordHashing.getBcryptStrength()
+            : calibrateBCryptStrength(passwordHashing.getTargetDuration());
+        log.info("Hashing new passwords with {} (BCrypt strength {})", passwordHashing.getEncoder(), bcryptStrength);
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        encoders.put(PBKDF2, new Pbkdf2PasswordEncoder());
+        encoders.put(ARGON2, new Argon2PasswordEncoder());
+        if (!encoders.containsKey(passwordHashing.getEncoder())) {
+            throw new IllegalStateException(
+                "Unknown password encoder '" + passwordHashing.getEncoder() + "', expected one of " + encoders.keySet()
+            );
+        }
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(passwordHashing.getEncoder(), encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return passwordEncoder;
+    }
+
+    /**
+     * Returns the highest BCrypt strength whose hashing time fits in the target duration, extrapolated from the time
+     * taken at a low strength (each additional level doubles the work).
+     */
+    int calibrateBCryptStrength(Duration targetDuration) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(CALIBRATION_STRENGTH);
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        int strength = CALIBRATION_STRENGTH;
+        long nanos = bestNanos;
+        while (strength < MAX_BCRYPT_STRENGTH && nanos * 2 <= targetDuration.toNanos()) {
+            strength++;
+            nanos *= 2;
+        }
+        int calibrated = Math.max(strength, MIN_BCRYPT_STRENGTH);
+        log.debug(
+            "Calibrated BCrypt strength {} for a target of {} ms ({} us at strength {})",
+            calibrated,
+            targetDuration.toMillis(),
+            bestNanos / 1000,
+            CALIBRATION_STRENGTH
+        );
+        return calibrated;
+    }
+}
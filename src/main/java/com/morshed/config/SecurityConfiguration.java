@@ -4,8 +4,11 @@ import static org.springframework.security.web.server.util.matcher.ServerWebExch
 
 import com.morshed.security.AuthoritiesConstants;
 import com.morshed.security.jwt.JWTFilter;
-import com.morshed.security.jwt.TokenProvider;
+import com.morshed.security.jwt.TokenAuthenticationCache;
 import com.morshed.web.filter.SpaWebFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpMethod;
@@ -15,14 +18,18 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.security.web.server.header.ReferrerPolicyServerHttpHeadersWriter;
 import org.springframework.security.web.server.util.matcher.NegatedServerWebExchangeMatcher;
 import org.springframework.security.web.server.util.matcher.OrServerWebExchangeMatcher;
 import org.zalando.problem.spring.webflux.advice.security.SecurityProblemSupport;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 import tech.jhipster.config.JHipsterProperties;
 
 @EnableWebFluxSecurity
@@ -30,29 +37,38 @@ import tech.jhipster.config.JHipsterProperties;
 @Import(SecurityProblemSupport.class)
 public class SecurityConfiguration {
 
+    private final Logger log = LoggerFactory.getLogger(SecurityConfiguration.class);
+
     private final JHipsterProperties jHipsterProperties;
 
     private final ReactiveUserDetailsService userDetailsService;
 
-    private final TokenProvider tokenProvider;
+    private final ReactiveUserDetailsPasswordService userDetailsPasswordService;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final TokenAuthenticationCache tokenAuthenticationCache;
 
     private final SecurityProblemSupport problemSupport;
 
+    private final Scheduler passwordHashingScheduler;
+
     public SecurityConfiguration(
         ReactiveUserDetailsService userDetailsService,
-        TokenProvider tokenProvider,
+        ReactiveUserDetailsPasswordService userDetailsPasswordService,
+        PasswordEncoder passwordEncoder,
+        TokenAuthenticationCache tokenAuthenticationCache,
         JHipsterProperties jHipsterProperties,
-        SecurityProblemSupport problemSupport
+        SecurityProblemSupport problemSupport,
+        @Qualifier(PasswordHashingConfiguration.PASSWORD_HASHING_SCHEDULER) Scheduler passwordHashingScheduler
     ) {
         this.userDetailsService = userDetailsService;
-        this.tokenProvider = tokenProvider;
+        this.userDetailsPasswordService = userDetailsPasswordService;
+        this.passwordEncoder = passwordEncoder;
+        this.tokenAuthenticationCache = tokenAuthenticationCache;
         this.jHipsterProperties = jHipsterProperties;
         this.problemSupport = problemSupport;
-    }
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        this.passwordHashingScheduler = passwordHashingScheduler;
     }
 
     @Bean
@@ -60,8 +76,30 @@ public class SecurityConfiguration {
         UserDetailsRepositoryReactiveAuthenticationManager authenticationManager = new UserDetailsRepositoryReactiveAuthenticationManager(
             userDetailsService
         );
-        authenticationManager.setPasswordEncoder(passwordEncoder());
-        return authenticationManager;
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        authenticationManager.setScheduler(passwordHashingScheduler);
+        // Outdated hashes are upgraded once the login completed, rather than making it wait for a second hash
+        return authentication ->
+            authenticationManager.authenticate(authentication).doOnNext(result -> upgradePasswordEncoding(result, authentication));
+    }
+
+    private void upgradePasswordEncoding(Authentication result, Authentication authentication) {
+        if (!(result.getPrincipal() instanceof UserDetails)) {
+            return;
+        }
+        UserDetails userDetails = (UserDetails) result.getPrincipal();
+        if (!passwordEncoder.upgradeEncoding(userDetails.getPassword())) {
+            return;
+        }
+        String presentedPassword = (String) authentication.getCredentials();
+        Mono
+            .fromCallable(() -> passwordEncoder.encode(presentedPassword))
+            .subscribeOn(passwordHashingScheduler)
+            .flatMap(newPassword -> userDetailsPasswordService.updatePassword(userDetails, newPassword))
+            .subscribe(
+                null,
+                e -> log.warn("Could not upgrade password encoding of {}: {}", userDetails.getUsername(), e.getMessage())
+            );
     }
 
     @Bean
@@ -75,7 +113,7 @@ public class SecurityConfiguration {
             .csrf()
                 .disable()
             .addFilterAt(new SpaWebFilter(), SecurityWebFiltersOrder.AUTHENTICATION)
-            .addFilterAt(new JWTFilter(tokenProvider), SecurityWebFiltersOrder.HTTP_BASIC)
+            .addFilterAt(new JWTFilter(tokenAuthenticationCache), SecurityWebFiltersOrder.HTTP_BASIC)
             .authenticationManager(reactiveAuthenticationManager())
             .exceptionHandling()
                 .accessDeniedHandler(problemSupport)
@@ -94,6 +132,7 @@ public class SecurityConfiguration {
             .pathMatchers("/").permitAll()
             .pathMatchers("/*.*").permitAll()
             .pathMatchers("/api/authenticate").permitAll()
+            .pathMatchers("/api/authenticate/refresh").permitAll()
             .pathMatchers("/api/register").permitAll()
             .pathMatchers("/api/activate").permitAll()
             .pathMatchers("/api/account/reset-password/init").permitAll()
@@ -0,0 +1,30 @@
+package com.morshed.config.dbmigrations;
+
+import com.github.cloudyrock.mongock.ChangeLog;
+import com.github.cloudyrock.mongock.ChangeSet;
+import com.github.cloudyrock.mongock.driver.mongodb.springdata.v3.decorator.impl.MongockTemplate;
+import com.morshed.domain.OutboxMail;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+
+/**
+ * Creates the indexes of the mail outbox collection.
+ */
+@ChangeLog(order = "005")
+public class MailOutboxMigration {
+
+    @ChangeSet(order = "01", author = "initiator", id = "01-addMailOutboxIndexes")
+    public void addMailOutboxIndexes(MongockTemplate mongoTemplate) {
+        // The workers look for the pending emails due for an attempt, and count the emails by status
+        mongoTemplate
+            .indexOps(OutboxMail.class)
+            .ensureIndex(
+                new Index()
+                    .on("status", Sort.Direction.ASC)
+                    .on(OutboxMail.NEXT_ATTEMPT_AT_FIELD, Sort.Direction.ASC)
+                    .named("status_next_attempt_at")
+            );
+        // Each worker reads back the batch it claimed
+        mongoTemplate.indexOps(OutboxMail.class).ensureIndex(new Index().on("claim", Sort.Direction.ASC).sparse().named("claim"));
+    }
+}
@@ -0,0 +1,32 @@
+package com.morshed.config.dbmigrations;
+
+import com.github.cloudyrock.mongock.ChangeLog;
+import com.github.cloudyrock.mongock.ChangeSet;
+import com.github.cloudyrock.mongock.driver.mongodb.springdata.v3.decorator.impl.MongockTemplate;
+import com.morshed.domain.RefreshToken;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+
+/**
+ * Creates the indexes of the refresh token collection.
+ */
+@ChangeLog(order = "002")
+public class RefreshTokenMigration {
+
+    @ChangeSet(order = "01", author = "initiator", id = "01-addRefreshTokenIndexes")
+    public void addRefreshTokenIndexes(MongockTemplate mongoTemplate) {
+        mongoTemplate
+            .indexOps(RefreshToken.class)
+            .ensureIndex(new Index().on(RefreshToken.TOKEN_HASH_FIELD, Sort.Direction.ASC).unique().named("token_hash"));
+        // Expired tokens are removed by MongoDB's TTL monitor, which runs every minute
+        mongoTemplate
+            .indexOps(RefreshToken.class)
+            .ensureIndex(new Index().on(RefreshToken.EXPIRES_AT_FIELD, Sort.Direction.ASC).expire(0).named("expires_at_ttl"));
+    }
+
+    @ChangeSet(order = "02", author = "initiator", id = "02-addRefreshTokenLoginIndex")
+    public void addRefreshTokenLoginIndex(MongockTemplate mongoTemplate) {
+        // All the refresh tokens of a user are deleted when the user is
+        mongoTemplate.indexOps(RefreshToken.class).ensureIndex(new Index().on("login", Sort.Direction.ASC).named("login"));
+    }
+}
@@ -0,0 +1,26 @@
+package com.morshed.config.dbmigrations;
+
+import com.github.cloudyrock.mongock.ChangeLog;
+import com.github.cloudyrock.mongock.ChangeSet;
+import com.github.cloudyrock.mongock.driver.mongodb.springdata.v3.decorator.impl.MongockTemplate;
+import com.morshed.domain.RevokedToken;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+
+/**
+ * Creates the indexes of the revoked token collection.
+ */
+@ChangeLog(order = "003")
+public class TokenRevocationMigration {
+
+    @ChangeSet(order = "01", author = "initiator", id = "01-addRevokedTokenIndexes")
+    public void addRevokedTokenIndexes(MongockTemplate mongoTemplate) {
+        // Each node polls for the entries revoked since its last poll
+        mongoTemplate
+            .indexOps(RevokedToken.class)
+            .ensureIndex(new Index().on(RevokedToken.REVOKED_AT_FIELD, Sort.Direction.ASC).named("revoked_at"));
+        mongoTemplate
+            .indexOps(RevokedToken.class)
+            .ensureIndex(new Index().on(RevokedToken.EXPIRES_AT_FIELD, Sort.Direction.ASC).expire(0).named("expires_at_ttl"));
+    }
+}
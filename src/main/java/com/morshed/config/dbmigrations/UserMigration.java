@@ -0,0 +1,124 @@
+package com.morshed.config.dbmigrations;
+
+import com.github.cloudyrock.mongock.ChangeLog;
+import com.github.cloudyrock.mongock.ChangeSet;
+import com.github.cloudyrock.mongock.driver.mongodb.springdata.v3.decorator.impl.MongockTemplate;
+import com.morshed.domain.User;
+import java.util.Arrays;
+import java.util.List;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+
+/**
+ * Migrates the user collection.
+ */
+@ChangeLog(order = "004")
+public class UserMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final List<String> SORTED_FIELDS = Arrays.asList(
+        "login",
+        "first_name",
+        "last_name",
+        "email",
+        "activated",
+        "lang_key",
+        "created_by",
+        "created_date",
+        "last_modified_by",
+        "last_modified_date"
+    );
+
+    @ChangeSet(order = "01", author = "initiator", id = "01-addNormalizedEmail")
+    public void addNormalizedEmail(MongockTemplate mongoTemplate) {
+        // Copied in batches rather than with a pipeline update, which needs MongoDB 4.2
+        Query query = new Query(Criteria.where("email").ne(null));
+        query.fields().include("email");
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        int batched = 0;
+        try (CloseableIterator<Document> users = mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(User.class))) {
+            while (users.hasNext()) {
+                Document user = users.next();
+                bulkOperations.updateOne(
+                    Query.query(Criteria.where("_id").is(user.get("_id"))),
+                    Update.update(User.NORMALIZED_EMAIL_FIELD, User.normalizeEmail(user.getString("email")))
+                );
+                if (++batched == BATCH_SIZE) {
+                    bulkOperations.execute();
+                    bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+                    batched = 0;
+                }
+            }
+        }
+        if (batched > 0) {
+            bulkOperations.execute();
+        }
+        mongoTemplate
+            .indexOps(User.class)
+            .ensureIndex(new Index().on(User.NORMALIZED_EMAIL_FIELD, Sort.Direction.ASC).named(User.EMAIL_INDEX));
+    }
+
+    @ChangeSet(order = "02", author = "initiator", id = "02-addUniqueLoginAndEmailIndexes")
+    public void addUniqueLoginAndEmailIndexes(MongockTemplate mongoTemplate) {
+        // Fails if existing users share a login or an email, which then have to be merged by hand first
+        IndexOperations indexOperations = mongoTemplate.indexOps(User.class);
+        indexOperations.ensureIndex(new Index().on("login", Sort.Direction.ASC).unique().named(User.LOGIN_INDEX));
+        // Users without an email are left out of the index, so they do not collide with each other
+        indexOperations.dropIndex(User.EMAIL_INDEX);
+        indexOperations.ensureIndex(
+            new Index().on(User.NORMALIZED_EMAIL_FIELD, Sort.Direction.ASC).unique().sparse().named(User.EMAIL_INDEX)
+        );
+    }
+
+    @ChangeSet(order = "03", author = "initiator", id = "03-addSortIndexes")
+    public void addSortIndexes(MongockTemplate mongoTemplate) {
+        // Keyset pagination of the user listings seeks on (sort field, _id) for each sortable field
+        IndexOperations indexOperations = mongoTemplate.indexOps(User.class);
+        for (String field : SORTED_FIELDS) {
+            indexOperations.ensureIndex(new Index().on(field, Sort.Direction.ASC).on("_id", Sort.Direction.ASC));
+        }
+    }
+
+    @ChangeSet(order = "04", author = "initiator", id = "04-addNotActivatedIndex")
+    public void addNotActivatedIndex(MongockTemplate mongoTemplate) {
+        // The nightly removal of the users who never activated matches activated, seeks on created_date, and checks
+        // activation_key from the index entries
+        mongoTemplate
+            .indexOps(User.class)
+            .ensureIndex(
+                new Index()
+                    .on("activated", Sort.Direction.ASC)
+                    .on("created_date", Sort.Direction.ASC)
+                    .on("activation_key", Sort.Direction.ASC)
+            );
+    }
+
+    @ChangeSet(order = "05", author = "initiator", id = "05-addExpiryIndexes")
+    public void addExpiryIndexes(MongockTemplate mongoTemplate) {
+        IndexOperations indexOperations = mongoTemplate.indexOps(User.class);
+        // MongoDB deletes the users who have not activated their account once their expire_at date passes. Activated
+        // users are left out of the index, so a leftover date can not delete them.
+        indexOperations.ensureIndex(
+            new Index()
+                .on(User.EXPIRE_AT_FIELD, Sort.Direction.ASC)
+                .expire(0)
+                .partial(PartialIndexFilter.of(Criteria.where("activated").is(false).and(User.EXPIRE_AT_FIELD).exists(true)))
+        );
+        // Password resets look the key up along with its date
+        indexOperations.ensureIndex(
+            new Index()
+                .on("reset_key", Sort.Direction.ASC)
+                .on("reset_date", Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(Criteria.where("reset_key").exists(true)))
+        );
+    }
+}
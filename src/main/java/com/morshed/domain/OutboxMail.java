@@ -0,0 +1,192 @@
+package com.morshed.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import javax.validation.constraints.NotNull;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * An email waiting in the outbox to be sent.
+ * <p>
+ * Emails are deleted once sent. Those which could not be sent after the maximum number of attempts are kept with the
+ * {@link Status#DEAD} status, for an administrator to look into.
+ */
+@Document(collection = "jhi_mail_outbox")
+public class OutboxMail implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String NEXT_ATTEMPT_AT_FIELD = "next_attempt_at";
+
+    public enum Status {
+        /**
+         * Waiting for its next attempt, at {@link #getNextAttemptAt()}.
+         */
+        PENDING,
+        /**
+         * Given up on, after too many failed attempts.
+         */
+        DEAD,
+    }
+
+    @Id
+    private String id;
+
+    @NotNull
+    private String to;
+
+    private String subject;
+
+    private String content;
+
+    private boolean multipart;
+
+    private boolean html;
+
+    @NotNull
+    private Status status = Status.PENDING;
+
+    private int attempts;
+
+    @NotNull
+    @Field(NEXT_ATTEMPT_AT_FIELD)
+    private Instant nextAttemptAt;
+
+    /**
+     * The batch the email was last claimed for, to be read back by the node which claimed it.
+     */
+    private String claim;
+
+    @Field("last_error")
+    private String lastError;
+
+    @Field("created_date")
+    private Instant createdDate;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public boolean isMultipart() {
+        return multipart;
+    }
+
+    public void setMultipart(boolean multipart) {
+        this.multipart = multipart;
+    }
+
+    public boolean isHtml() {
+        return html;
+    }
+
+    public void setHtml(boolean html) {
+        this.html = html;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(Instant nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getClaim() {
+        return claim;
+    }
+
+    public void setClaim(String claim) {
+        this.claim = claim;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OutboxMail)) {
+            return false;
+        }
+        return id != null && id.equals(((OutboxMail) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "OutboxMail{" +
+            "to='" + to + '\'' +
+            ", subject='" + subject + '\'' +
+            ", status=" + status +
+            ", attempts=" + attempts +
+            ", nextAttemptAt=" + nextAttemptAt +
+            "}";
+    }
+}
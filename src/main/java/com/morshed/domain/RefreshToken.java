@@ -0,0 +1,107 @@
+package com.morshed.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import javax.validation.constraints.NotNull;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * A refresh token, exchanged once for a new access token and a new refresh token.
+ * <p>
+ * Only a hash of the token is stored. Expired tokens are removed by a TTL index on {@code expires_at}.
+ */
+@Document(collection = "jhi_refresh_token")
+public class RefreshToken implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String TOKEN_HASH_FIELD = "token_hash";
+
+    public static final String EXPIRES_AT_FIELD = "expires_at";
+
+    @Id
+    private String id;
+
+    @NotNull
+    @Field(TOKEN_HASH_FIELD)
+    private String tokenHash;
+
+    @NotNull
+    private String login;
+
+    @Field("remember_me")
+    private boolean rememberMe;
+
+    @NotNull
+    @Field(EXPIRES_AT_FIELD)
+    private Instant expiresAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public void setLogin(String login) {
+        this.login = login;
+    }
+
+    public boolean isRememberMe() {
+        return rememberMe;
+    }
+
+    public void setRememberMe(boolean rememberMe) {
+        this.rememberMe = rememberMe;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RefreshToken)) {
+            return false;
+        }
+        return id != null && id.equals(((RefreshToken) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RefreshToken{" +
+            "login='" + login + '\'' +
+            ", rememberMe=" + rememberMe +
+            ", expiresAt=" + expiresAt +
+            "}";
+    }
+}
@@ -0,0 +1,122 @@
+package com.morshed.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import javax.validation.constraints.NotNull;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * A revoked access token, or all the access tokens of a user issued up to a point in time.
+ * <p>
+ * Entries are removed by a TTL index on {@code expires_at} once every token they match has expired anyway.
+ */
+@Document(collection = "jhi_revoked_token")
+public class RevokedToken implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String REVOKED_AT_FIELD = "revoked_at";
+
+    public static final String EXPIRES_AT_FIELD = "expires_at";
+
+    /**
+     * What {@link #getValue()} identifies.
+     */
+    public enum Type {
+        /**
+         * A single token, by its {@code jti} claim.
+         */
+        TOKEN,
+        /**
+         * All the tokens of a user issued up to {@link #getRevokedAt()}, by their {@code sub} claim.
+         */
+        USER,
+    }
+
+    @Id
+    private String id;
+
+    @NotNull
+    private Type type;
+
+    @NotNull
+    private String value;
+
+    @NotNull
+    @Field(REVOKED_AT_FIELD)
+    private Instant revokedAt;
+
+    @NotNull
+    @Field(EXPIRES_AT_FIELD)
+    private Instant expiresAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(Instant revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RevokedToken)) {
+            return false;
+        }
+        return id != null && id.equals(((RevokedToken) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RevokedToken{" +
+            "type=" + type +
+            ", value='" + value + '\'' +
+            ", revokedAt=" + revokedAt +
+            ", expiresAt=" + expiresAt +
+            "}";
+    }
+}
@@ -24,18 +24,26 @@ public class User extends AbstractAuditingEntity implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    public static final String NORMALIZED_EMAIL_FIELD = "normalized_email";
+
+    public static final String LOGIN_INDEX = "login";
+
+    public static final String EMAIL_INDEX = NORMALIZED_EMAIL_FIELD;
+
+    public static final String EXPIRE_AT_FIELD = "expire_at";
+
     @Id
     private String id;
 
     @NotNull
     @Pattern(regexp = Constants.LOGIN_REGEX)
     @Size(min = 1, max = 50)
-    @Indexed
+    @Indexed(unique = true)
     private String login;
 
     @JsonIgnore
     @NotNull
-    @Size(min = 60, max = 60)
+    @Size(min = 60, max = 255)
     private String password;
 
     @Size(max = 50)
@@ -48,9 +56,16 @@ public class User extends AbstractAuditingEntity implements Serializable {
 
     @Email
     @Size(min = 5, max = 254)
-    @Indexed
     private String email;
 
+    /**
+     * Lower-case copy of {@link #email}, so that case-insensitive lookups are exact matches on an index.
+     */
+    @JsonIgnore
+    @Indexed(unique = true, sparse = true)
+    @Field(NORMALIZED_EMAIL_FIELD)
+    private String normalizedEmail;
+
     private boolean activated = false;
 
     @Size(min = 2, max = 10)
@@ -74,6 +89,13 @@ public class User extends AbstractAuditingEntity implements Serializable {
     @Field("reset_date")
     private Instant resetDate = null;
 
+    /**
+     * When MongoDB deletes the user if they have not activated their account by then, with the TTL index on this field.
+     */
+    @JsonIgnore
+    @Field(EXPIRE_AT_FIELD)
+    private Instant expireAt;
+
     @JsonIgnore
     private Set<Authority> authorities = new HashSet<>();
 
@@ -124,6 +146,24 @@ public class User extends AbstractAuditingEntity implements Serializable {
 
     public void setEmail(String email) {
         this.email = email;
+        this.normalizedEmail = normalizeEmail(email);
+    }
+
+    public String getNormalizedEmail() {
+        return normalizedEmail;
+    }
+
+    public static String normalizeEmail(String email) {
+        return StringUtils.lowerCase(email, Locale.ENGLISH);
+    }
+
+    /**
+     * Returns whether the given MongoDB error message reports a duplicate key in the given unique index, such as
+     * {@link #LOGIN_INDEX} or {@link #EMAIL_INDEX}.
+     */
+    public static boolean isDuplicateKeyIn(String message, String indexName) {
+        // MongoDB only reports the index in the message, e.g. "E11000 duplicate key error collection: db.jhi_user index: login dup key"
+        return message != null && message.contains("index: " + indexName + " dup key");
     }
 
     public String getImageUrl() {
@@ -166,6 +206,14 @@ public class User extends AbstractAuditingEntity implements Serializable {
         this.resetDate = resetDate;
     }
 
+    public Instant getExpireAt() {
+        return expireAt;
+    }
+
+    public void setExpireAt(Instant expireAt) {
+        this.expireAt = expireAt;
+    }
+
     public String getLangKey() {
         return langKey;
     }
@@ -0,0 +1,17 @@
+package com.morshed.repository;
+
+import com.morshed.domain.OutboxMail;
+import java.util.Collection;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spring Data MongoDB repository for the {@link OutboxMail} entity.
+ */
+@Repository
+public interface OutboxMailRepository extends ReactiveMongoRepository<OutboxMail, String>, OutboxMailRepositoryCustom {
+    Mono<Long> countByStatus(OutboxMail.Status status);
+
+    Mono<Long> deleteByIdIn(Collection<String> ids);
+}
@@ -0,0 +1,24 @@
+package com.morshed.repository;
+
+import com.morshed.domain.OutboxMail;
+import java.time.Duration;
+import java.time.Instant;
+import reactor.core.publisher.Flux;
+
+/**
+ * Queries of the {@link OutboxMail} entity which Spring Data can not derive.
+ */
+public interface OutboxMailRepositoryCustom {
+    /**
+     * Claims the pending emails due for an attempt, oldest first, so that no other node sends them meanwhile.
+     * <p>
+     * Their next attempt is pushed back by the claim timeout: emails claimed by a node which stops before updating
+     * them are claimed again once it is over.
+     *
+     * @param now the current time.
+     * @param limit the maximum number of emails to claim.
+     * @param claimTimeout how long the emails stay claimed.
+     * @return the claimed emails.
+     */
+    Flux<OutboxMail> claimDue(Instant now, int limit, Duration claimTimeout);
+}
@@ -0,0 +1,53 @@
+package com.morshed.repository;
+
+import com.morshed.domain.OutboxMail;
+import java.time.Duration;
+import java.time.Instant;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+
+/**
+ * Claims batches of outbox emails with three requests: reading the ids of the due emails on the
+ * {@code (status, next_attempt_at)} index, tagging those still due with a claim with one {@code updateMany}, and
+ * reading back the ones tagged. Emails another node claimed in between are left out of the last two.
+ */
+class OutboxMailRepositoryCustomImpl implements OutboxMailRepositoryCustom {
+
+    private static final String ID = "id";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    OutboxMailRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<OutboxMail> claimDue(Instant now, int limit, Duration claimTimeout) {
+        // Unique per claim without UUID.randomUUID(), whose SecureRandom can block the event loop
+        String claim = new ObjectId().toHexString();
+        Query dueQuery = Query.query(due(now)).with(Sort.by(Sort.Direction.ASC, "nextAttemptAt")).limit(limit);
+        dueQuery.fields().include(ID);
+        return mongoTemplate
+            .find(dueQuery, OutboxMail.class)
+            .map(OutboxMail::getId)
+            .collectList()
+            .filter(ids -> !ids.isEmpty())
+            .flatMap(ids ->
+                mongoTemplate.updateMulti(
+                    Query.query(Criteria.where(ID).in(ids).andOperator(due(now))),
+                    new Update().set("claim", claim).set("nextAttemptAt", now.plus(claimTimeout)),
+                    OutboxMail.class
+                )
+            )
+            .flatMapMany(result -> mongoTemplate.find(Query.query(Criteria.where("claim").is(claim)), OutboxMail.class));
+    }
+
+    private static Criteria due(Instant now) {
+        return Criteria.where("status").is(OutboxMail.Status.PENDING).and("nextAttemptAt").lte(now);
+    }
+}
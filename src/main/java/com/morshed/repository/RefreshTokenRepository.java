@@ -0,0 +1,19 @@
+package com.morshed.repository;
+
+import com.morshed.domain.RefreshToken;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spring Data MongoDB repository for the {@link RefreshToken} entity.
+ */
+@Repository
+public interface RefreshTokenRepository extends ReactiveMongoRepository<RefreshToken, String> {
+    /**
+     * Atomically removes and returns the token with the given hash, so that it can be used only once.
+     */
+    Mono<RefreshToken> deleteOneByTokenHash(String tokenHash);
+
+    Mono<Long> deleteAllByLogin(String login);
+}
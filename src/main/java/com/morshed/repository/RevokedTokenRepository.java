@@ -0,0 +1,17 @@
+package com.morshed.repository;
+
+import com.morshed.domain.RevokedToken;
+import java.time.Instant;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Spring Data MongoDB repository for the {@link RevokedToken} entity.
+ */
+@Repository
+public interface RevokedTokenRepository extends ReactiveMongoRepository<RevokedToken, String> {
+    Flux<RevokedToken> findAllByExpiresAtAfter(Instant dateTime);
+
+    Flux<RevokedToken> findAllByRevokedAtGreaterThanEqual(Instant dateTime);
+}
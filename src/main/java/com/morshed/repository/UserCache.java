@@ -0,0 +1,89 @@
+package com.morshed.repository;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.morshed.config.ApplicationProperties;
+import com.morshed.domain.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.function.Function;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-through cache of the {@link User} lookups by login and by email.
+ * <p>
+ * Concurrent lookups of the same key share a single query, and unknown keys are not cached. The cached users are
+ * shared, so callers must not modify them: code that updates a user reads it from the {@link UserRepository}, and
+ * calls {@link #evict(User)} once the change is saved, as well as before changing its login or email.
+ * <p>
+ * Evictions only apply to the current node, so the cache is only for lookups that can serve a user up to
+ * {@code time-to-live} old, such as displaying the current account. Authenticating a user or issuing a token for
+ * them reads the {@link UserRepository}.
+ */
+@Component
+public class UserCache {
+
+    public static final String USERS_BY_LOGIN_CACHE = "usersByLogin";
+
+    public static final String USERS_BY_EMAIL_CACHE = "usersByEmail";
+
+    private final UserRepository userRepository;
+
+    private final boolean enabled;
+
+    private final AsyncCache<String, User> usersByLogin;
+
+    private final AsyncCache<String, User> usersByEmail;
+
+    public UserCache(UserRepository userRepository, ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.UserCache userCache = applicationProperties.getUserCache();
+        this.userRepository = userRepository;
+        this.enabled = userCache.isEnabled();
+        this.usersByLogin = CaffeineCacheMetrics.monitor(meterRegistry, newCache(userCache), USERS_BY_LOGIN_CACHE);
+        this.usersByEmail = CaffeineCacheMetrics.monitor(meterRegistry, newCache(userCache), USERS_BY_EMAIL_CACHE);
+    }
+
+    private static AsyncCache<String, User> newCache(ApplicationProperties.UserCache userCache) {
+        return Caffeine
+            .newBuilder()
+            .maximumSize(userCache.getMaxSize())
+            .expireAfterWrite(userCache.getTimeToLive())
+            .recordStats()
+            .buildAsync();
+    }
+
+    /**
+     * Cached {@link UserRepository#findOneByLogin(String)}.
+     */
+    public Mono<User> findOneByLogin(String login) {
+        return get(usersByLogin, login, userRepository::findOneByLogin);
+    }
+
+    /**
+     * Cached {@link UserRepository#findOneByEmailIgnoreCase(String)}.
+     */
+    public Mono<User> findOneByEmailIgnoreCase(String email) {
+        return get(usersByEmail, User.normalizeEmail(email), userRepository::findOneByNormalizedEmail);
+    }
+
+    /**
+     * Removes the given user from the cache, under its current login and email.
+     */
+    public void evict(User user) {
+        if (user.getLogin() != null) {
+            usersByLogin.synchronous().invalidate(user.getLogin());
+        }
+        if (user.getNormalizedEmail() != null) {
+            usersByEmail.synchronous().invalidate(user.getNormalizedEmail());
+        }
+    }
+
+    private Mono<User> get(AsyncCache<String, User> cache, String key, Function<String, Mono<User>> loader) {
+        if (!enabled) {
+            return loader.apply(key);
+        }
+        // A load completing empty or with an error is not kept in the cache
+        return Mono.fromFuture(() -> cache.get(key, (k, executor) -> loader.apply(k).toFuture()));
+    }
+}
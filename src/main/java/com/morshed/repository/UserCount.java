@@ -0,0 +1,34 @@
+package com.morshed.repository;
+
+import com.morshed.config.ApplicationProperties;
+import java.time.Duration;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Total number of users for the paginated listings.
+ * <p>
+ * Counting the users scans the whole {@code _id} index, which on a large collection costs more than reading a page.
+ * Unless asked for an exact count, the listings get the count from the collection metadata, cached for a while: it
+ * only drives the pagination links, which tolerate being a little behind.
+ */
+@Component
+public class UserCount {
+
+    private final UserRepository userRepository;
+
+    private final Mono<Long> approximateCount;
+
+    public UserCount(UserRepository userRepository, ApplicationProperties applicationProperties) {
+        ApplicationProperties.UserCount userCount = applicationProperties.getUserCount();
+        this.userRepository = userRepository;
+        Mono<Long> count = userCount.isEstimated() ? userRepository.estimatedCount() : userRepository.count();
+        Duration timeToLive = userCount.getTimeToLive();
+        // Only successful counts are cached, so a failed one is retried by the next request
+        this.approximateCount = timeToLive.isZero() ? count : count.cache(total -> timeToLive, e -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    public Mono<Long> count(boolean exact) {
+        return exact ? userRepository.count() : approximateCount;
+    }
+}
@@ -0,0 +1,98 @@
+package com.morshed.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Objects;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Position in a list of users sorted by one property and then by id, for keyset pagination.
+ * <p>
+ * It holds the sort value and id of the last user of a page, in their MongoDB representation, so the next page is
+ * read with range conditions on the sort index instead of skipping all the previous users. Clients get it as an
+ * opaque, URL-safe token.
+ */
+public final class UserCursor {
+
+    private final String property;
+
+    private final Sort.Direction direction;
+
+    private final Object value;
+
+    private final Object id;
+
+    UserCursor(String property, Sort.Direction direction, Object value, Object id) {
+        this.property = Objects.requireNonNull(property);
+        this.direction = Objects.requireNonNull(direction);
+        this.value = value;
+        this.id = Objects.requireNonNull(id);
+    }
+
+    /**
+     * @return whether this cursor was created for the given sort order.
+     */
+    public boolean isFor(Sort.Order order) {
+        return property.equals(order.getProperty()) && direction == order.getDirection();
+    }
+
+    String getProperty() {
+        return property;
+    }
+
+    Sort.Direction getDirection() {
+        return direction;
+    }
+
+    Object getValue() {
+        return value;
+    }
+
+    Object getId() {
+        return id;
+    }
+
+    public String encode() {
+        Document document = new Document("p", property).append("d", direction.name()).append("v", value).append("i", id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(document.toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token returned by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static UserCursor decode(String token) {
+        Document document;
+        try {
+            document = Document.parse(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        Object value = document.get("v");
+        Object id = document.get("i");
+        // The values end up in queries, so anything that could be read as an operator is rejected
+        if (!isScalar(value) || !(id instanceof String || id instanceof ObjectId)) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        try {
+            return new UserCursor(document.getString("p"), Sort.Direction.valueOf(document.getString("d")), value, id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    private static boolean isScalar(Object value) {
+        return (
+            value == null ||
+            value instanceof String ||
+            value instanceof Boolean ||
+            value instanceof Number ||
+            value instanceof Date ||
+            value instanceof ObjectId
+        );
+    }
+}
@@ -3,6 +3,7 @@ package com.morshed.repository;
 import com.morshed.domain.User;
 import java.time.Instant;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -12,20 +13,60 @@ import reactor.core.publisher.Mono;
  * Spring Data MongoDB repository for the {@link User} entity.
  */
 @Repository
-public interface UserRepository extends ReactiveMongoRepository<User, String> {
+public interface UserRepository extends ReactiveMongoRepository<User, String>, UserRepositoryCustom {
     Mono<User> findOneByActivationKey(String activationKey);
 
     Flux<User> findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant dateTime);
 
-    Mono<User> findOneByResetKey(String resetKey);
+    Mono<User> findOneByResetKeyAndResetDateAfter(String resetKey, Instant dateTime);
 
-    Mono<User> findOneByEmailIgnoreCase(String email);
+    Mono<User> findOneByNormalizedEmail(String normalizedEmail);
+
+    /**
+     * Finds a user by email, ignoring case, with an exact match on the normalized email.
+     */
+    default Mono<User> findOneByEmailIgnoreCase(String email) {
+        if (email == null) {
+            return Mono.empty();
+        }
+        return findOneByNormalizedEmail(User.normalizeEmail(email));
+    }
 
     Mono<User> findOneByLogin(String login);
 
-    Flux<User> findAllByIdNotNull(Pageable pageable);
+    /**
+     * Fields of the users in the public listing, see {@code UserDTO}.
+     */
+    String PUBLIC_LIST_FIELDS = "{ 'login': 1 }";
+
+    /**
+     * Fields of the users in the admin listing, see {@code AdminUserDTO}: all but the password hash and the keys.
+     */
+    String ADMIN_LIST_FIELDS = "{ 'password': 0, 'activation_key': 0, 'reset_key': 0, 'reset_date': 0, 'normalized_email': 0 }";
+
+    /**
+     * Finds a page of users with only the {@link #ADMIN_LIST_FIELDS}, so the users must not be saved back.
+     */
+    @Query(fields = ADMIN_LIST_FIELDS)
+    Flux<User> findAdminListByIdNotNull(Pageable pageable);
+
+    /**
+     * Finds a page of activated users with only the {@link #PUBLIC_LIST_FIELDS}, so the users must not be saved back.
+     */
+    @Query(fields = PUBLIC_LIST_FIELDS)
+    Flux<User> findPublicListByActivatedIsTrue(Pageable pageable);
+
+    /**
+     * Fields of the users removed for not having activated their account: those {@link UserCache} is keyed on.
+     */
+    String NOT_ACTIVATED_FIELDS = "{ 'login': 1, 'normalized_email': 1 }";
 
-    Flux<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
+    /**
+     * Finds the users who did not activate their account, created before the given date, with only the
+     * {@link #NOT_ACTIVATED_FIELDS}, so the users must not be saved back.
+     */
+    @Query(fields = NOT_ACTIVATED_FIELDS)
+    Flux<User> findNotActivatedListByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant dateTime);
 
     Mono<Long> count();
 }
@@ -0,0 +1,79 @@
+package com.morshed.repository;
+
+import com.morshed.domain.User;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Queries of the {@link User} entity which Spring Data can not derive.
+ */
+public interface UserRepositoryCustom {
+    /**
+     * Finds the users following the given cursor, sorted by the given order and then by id.
+     *
+     * @param cursor the last user of the previous page, or {@code null} for the first page.
+     * @param order the sort order, on a property backed by a {@code (property, _id)} index.
+     * @param activatedOnly whether to only return activated users.
+     * @param limit the maximum number of users to return.
+     * @param fields the fields to read, such as {@link UserRepository#PUBLIC_LIST_FIELDS}, to which the sort property is
+     *        added. The users must then not be saved back.
+     */
+    Flux<User> findAllAfter(@Nullable UserCursor cursor, Sort.Order order, boolean activatedOnly, int limit, String fields);
+
+    /**
+     * Streams all the users sorted by id, reading them from MongoDB in batches as they are requested.
+     *
+     * @param id the id of the last user already read, or {@code null} to start from the first user.
+     * @param batchSize the number of users MongoDB returns per batch.
+     * @param fields the fields to read, such as {@link UserRepository#ADMIN_LIST_FIELDS}. The users must then not be
+     *        saved back.
+     */
+    Flux<User> streamAllAfter(@Nullable String id, int batchSize, String fields);
+
+    /**
+     * Inserts the users through the {@link org.springframework.data.mongodb.core.ReactiveMongoTemplate}, so that the
+     * entity callbacks and events apply, with one {@code insertMany} plus one more for each user breaking a unique
+     * index, as the insert resumes after it. The users are given their id, which is reset for those not inserted.
+     *
+     * @param users the users to insert.
+     * @return the error messages of the users which could not be inserted, by index in the list.
+     */
+    Mono<Map<Integer, String>> insertAllSkippingFailures(List<User> users);
+
+    /**
+     * Deletes the given users with a single {@code deleteMany}, those which still did not activate their account and
+     * were created before the given date.
+     *
+     * @param ids the ids of the users to delete.
+     * @param createdBefore the creation date the users must be older than.
+     * @return the number of deleted users.
+     */
+    Mono<Long> deleteNotActivatedByIdIn(Collection<String> ids, Instant createdBefore);
+
+    /**
+     * Replaces the password hash of the given user, unless it was changed since it was read.
+     *
+     * @param login the login of the user.
+     * @param currentPassword the password hash the user was read with.
+     * @param newPassword the new password hash.
+     * @return the updated user, or an empty {@link Mono} if the user was deleted or its password changed.
+     */
+    Mono<User> updatePassword(String login, String currentPassword, String newPassword);
+
+    /**
+     * Returns the cursor positioned on the given user, for the given sort order.
+     */
+    UserCursor cursorOf(User user, Sort.Order order);
+
+    /**
+     * Returns the number of users from the collection metadata, which is cheap but can be off after an unclean shutdown
+     * or on a sharded cluster.
+     */
+    Mono<Long> estimatedCount();
+}
@@ -0,0 +1,199 @@
+package com.morshed.repository;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.result.DeleteResult;
+import com.morshed.domain.User;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keyset pagination of the users, with range conditions on the {@code (property, _id)} indexes, their estimated
+ * count, bulk writes and conditional updates.
+ * <p>
+ * MongoDB sorts missing and {@code null} values first, and string ids before {@code ObjectId}s, which the pagination
+ * conditions account for since both show up in the user collection.
+ */
+class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String ID = "id";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    UserRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<User> findAllAfter(UserCursor cursor, Sort.Order order, boolean activatedOnly, int limit, String fields) {
+        return mongoTemplate.find(query(cursor, order, activatedOnly, fields).limit(limit), User.class);
+    }
+
+    @Override
+    public Flux<User> streamAllAfter(String id, int batchSize, String fields) {
+        Sort.Order order = Sort.Order.asc(ID);
+        UserCursor cursor = null;
+        if (id != null) {
+            Object mongoId = mongoTemplate.getConverter().convertId(id, ObjectId.class);
+            cursor = new UserCursor(ID, order.getDirection(), mongoId, mongoId);
+        }
+        return mongoTemplate.find(query(cursor, order, false, fields).cursorBatchSize(batchSize), User.class);
+    }
+
+    @Override
+    public Mono<Map<Integer, String>> insertAllSkippingFailures(List<User> users) {
+        // The template only sets the ids once all the users are inserted, so they are known up front for those inserted
+        // before a failure
+        for (User user : users) {
+            if (user.getId() == null) {
+                user.setId(ObjectId.get().toHexString());
+            }
+        }
+        return insertAllFrom(users, 0, new HashMap<>());
+    }
+
+    private Mono<Map<Integer, String>> insertAllFrom(List<User> users, int from, Map<Integer, String> failures) {
+        if (from == users.size()) {
+            return Mono.just(failures);
+        }
+        // The insert is ordered: it stops at the first failure, and is resumed after it
+        return mongoTemplate
+            .insertAll(users.subList(from, users.size()))
+            .then(Mono.just(failures))
+            .onErrorResume(
+                e -> bulkWriteException(e) != null,
+                e -> {
+                    BulkWriteError error = bulkWriteException(e).getWriteErrors().get(0);
+                    int failed = from + error.getIndex();
+                    users.get(failed).setId(null);
+                    failures.put(failed, error.getMessage());
+                    return insertAllFrom(users, failed + 1, failures);
+                }
+            );
+    }
+
+    private static MongoBulkWriteException bulkWriteException(Throwable e) {
+        // The template translates the exception of the driver, keeping it as the cause
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoBulkWriteException) {
+                return (MongoBulkWriteException) cause;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Mono<Long> deleteNotActivatedByIdIn(Collection<String> ids, Instant createdBefore) {
+        // The conditions are checked again, in case a user activated their account since they were read
+        Query query = Query.query(
+            Criteria
+                .where(ID)
+                .in(ids)
+                .and("activated")
+                .is(false)
+                .and("activationKey")
+                .ne(null)
+                .and("createdDate")
+                .lt(createdBefore)
+        );
+        return mongoTemplate.remove(query, User.class).map(DeleteResult::getDeletedCount);
+    }
+
+    @Override
+    public Mono<User> updatePassword(String login, String currentPassword, String newPassword) {
+        Query query = Query.query(Criteria.where("login").is(login).and("password").is(currentPassword));
+        Update update = Update.update("password", newPassword);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), User.class);
+    }
+
+    @Override
+    public UserCursor cursorOf(User user, Sort.Order order) {
+        MongoConverter converter = mongoTemplate.getConverter();
+        Object id = converter.convertId(user.getId(), ObjectId.class);
+        if (ID.equals(order.getProperty())) {
+            return new UserCursor(ID, order.getDirection(), id, id);
+        }
+        MongoPersistentEntity<?> entity = converter.getMappingContext().getRequiredPersistentEntity(User.class);
+        PersistentPropertyAccessor<User> accessor = entity.getPropertyAccessor(user);
+        Object value = accessor.getProperty(entity.getRequiredPersistentProperty(order.getProperty()));
+        return new UserCursor(order.getProperty(), order.getDirection(), converter.convertToMongoType(value), id);
+    }
+
+    @Override
+    public Mono<Long> estimatedCount() {
+        return mongoTemplate.estimatedCount(User.class);
+    }
+
+    private static Query query(UserCursor cursor, Sort.Order order, boolean activatedOnly, String fields) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (activatedOnly) {
+            criteria.add(Criteria.where("activated").is(true));
+        }
+        if (cursor != null) {
+            criteria.add(after(cursor));
+        }
+        Sort sort = ID.equals(order.getProperty())
+            ? Sort.by(order.getDirection(), ID)
+            : Sort.by(order.getDirection(), order.getProperty(), ID);
+        Document projection = Document.parse(fields);
+        if (projection.values().stream().anyMatch(Integer.valueOf(1)::equals)) {
+            // The cursor of the next page is read from the sort property, so an inclusion projection must keep it
+            projection.put(order.getProperty(), 1);
+        }
+        Query query = new BasicQuery(new Document(), projection).with(sort);
+        if (!criteria.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(criteria.toArray(new Criteria[0])));
+        }
+        return query;
+    }
+
+    private static Criteria after(UserCursor cursor) {
+        String property = cursor.getProperty();
+        Object value = cursor.getValue();
+        boolean ascending = cursor.getDirection().isAscending();
+        if (ID.equals(property)) {
+            return idAfter(cursor);
+        }
+        if (value == null) {
+            Criteria sameValue = Criteria.where(property).is(null).andOperator(idAfter(cursor));
+            return ascending ? new Criteria().orOperator(sameValue, Criteria.where(property).ne(null)) : sameValue;
+        }
+        Criteria sameValue = Criteria.where(property).is(value).andOperator(idAfter(cursor));
+        if (ascending) {
+            return new Criteria().orOperator(Criteria.where(property).gt(value), sameValue);
+        }
+        return new Criteria().orOperator(Criteria.where(property).lt(value), sameValue, Criteria.where(property).is(null));
+    }
+
+    private static Criteria idAfter(UserCursor cursor) {
+        Object id = cursor.getId();
+        boolean ascending = cursor.getDirection().isAscending();
+        if (id instanceof ObjectId) {
+            return ascending
+                ? Criteria.where(ID).gt(id)
+                : new Criteria().orOperator(Criteria.where(ID).lt(id), Criteria.where(ID).type(JsonSchemaObject.Type.STRING));
+        }
+        return ascending
+            ? new Criteria().orOperator(Criteria.where(ID).gt(id), Criteria.where(ID).type(JsonSchemaObject.Type.OBJECT_ID))
+            : Criteria.where(ID).lt(id);
+    }
+}
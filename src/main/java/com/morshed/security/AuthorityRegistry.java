@@ -0,0 +1,78 @@
+package com.morshed.security;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Registry of interned {@link GrantedAuthority} instances.
+ * <p>
+ * Resolves a comma-separated authorities string (as stored in the JWT {@code auth} claim) to a shared, immutable
+ * list, so that resolving the authorities of a known claim allocates nothing. The combinations issued for the
+ * built-in authorities are precomputed; other claims are interned the first time they are seen, up to a fixed limit.
+ */
+public final class AuthorityRegistry {
+
+    static final int MAX_INTERNED = 256;
+
+    private final ConcurrentMap<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, List<GrantedAuthority>> claims = new ConcurrentHashMap<>();
+
+    public AuthorityRegistry() {
+        getAuthorities(AuthoritiesConstants.ADMIN);
+        getAuthorities(AuthoritiesConstants.USER);
+        getAuthorities(AuthoritiesConstants.ANONYMOUS);
+        getAuthorities(AuthoritiesConstants.ADMIN + "," + AuthoritiesConstants.USER);
+    }
+
+    /**
+     * Returns the shared instance for the given authority name.
+     *
+     * @param name the authority name.
+     * @return the granted authority.
+     */
+    public GrantedAuthority getAuthority(String name) {
+        GrantedAuthority authority = authorities.get(name);
+        if (authority != null) {
+            return authority;
+        }
+        if (authorities.size() >= MAX_INTERNED) {
+            return new SimpleGrantedAuthority(name);
+        }
+        return authorities.computeIfAbsent(name, SimpleGrantedAuthority::new);
+    }
+
+    /**
+     * Returns the immutable list of authorities for a comma-separated authorities claim.
+     *
+     * @param claim the comma-separated authority names; blank entries are ignored.
+     * @return the granted authorities.
+     */
+    public List<GrantedAuthority> getAuthorities(String claim) {
+        List<GrantedAuthority> grantedAuthorities = claims.get(claim);
+        if (grantedAuthorities != null) {
+            return grantedAuthorities;
+        }
+        grantedAuthorities = parse(claim);
+        if (claims.size() >= MAX_INTERNED) {
+            return grantedAuthorities;
+        }
+        List<GrantedAuthority> existing = claims.putIfAbsent(claim, grantedAuthorities);
+        return existing != null ? existing : grantedAuthorities;
+    }
+
+    private List<GrantedAuthority> parse(String claim) {
+        List<GrantedAuthority> grantedAuthorities = new ArrayList<>();
+        for (String name : claim.split(",")) {
+            if (!name.trim().isEmpty()) {
+                grantedAuthorities.add(getAuthority(name));
+            }
+        }
+        return Collections.unmodifiableList(grantedAuthorities);
+    }
+}
@@ -1,6 +1,7 @@
 package com.morshed.security;
 
 import com.morshed.domain.User;
+import com.morshed.repository.UserCache;
 import com.morshed.repository.UserRepository;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -9,6 +10,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -17,16 +19,26 @@ import reactor.core.publisher.Mono;
 
 /**
  * Authenticate a user from the database.
+ * <p>
+ * Also stores the new hash when the {@link org.springframework.security.crypto.password.PasswordEncoder} upgrades
+ * the encoding of a password on successful login, unless the password was changed in the meantime.
+ * <p>
+ * Users are read from the {@link UserRepository} rather than from the {@link UserCache}, which is only evicted on the
+ * node making a change: a password reset, a deactivation or a removed authority must apply to the next login on every
+ * node.
  */
 @Component("userDetailsService")
-public class DomainUserDetailsService implements ReactiveUserDetailsService {
+public class DomainUserDetailsService implements ReactiveUserDetailsService, ReactiveUserDetailsPasswordService {
 
     private final Logger log = LoggerFactory.getLogger(DomainUserDetailsService.class);
 
     private final UserRepository userRepository;
 
-    public DomainUserDetailsService(UserRepository userRepository) {
+    private final UserCache userCache;
+
+    public DomainUserDetailsService(UserRepository userRepository, UserCache userCache) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
     }
 
     @Override
@@ -47,6 +59,18 @@ public class DomainUserDetailsService implements ReactiveUserDetailsService {
             .map(user -> createSpringSecurityUser(lowercaseLogin, user));
     }
 
+    @Override
+    public Mono<UserDetails> updatePassword(UserDetails userDetails, String newPassword) {
+        log.debug("Upgrading password encoding of {}", userDetails.getUsername());
+        // The upgrade runs after the login completed, so it must not undo a password change or a deletion since then
+        return userRepository
+            .updatePassword(userDetails.getUsername(), userDetails.getPassword(), newPassword)
+            .doOnNext(userCache::evict)
+            .map(user -> createSpringSecurityUser(user.getLogin(), user))
+            .cast(UserDetails.class)
+            .defaultIfEmpty(userDetails);
+    }
+
     private org.springframework.security.core.userdetails.User createSpringSecurityUser(String lowercaseLogin, User user) {
         if (!user.isActivated()) {
             throw new UserNotActivatedException("User " + lowercaseLogin + " was not activated");
@@ -0,0 +1,202 @@
+package com.morshed.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.morshed.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limits login attempts with one token bucket per login and one per client IP, checked before the password is hashed.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it will be full again (the "generic cell rate
+ * algorithm"), so acquiring a token is one compare-and-set and never blocks. Buckets live in Caffeine caches, which
+ * are striped, and are evicted once they have been idle long enough to be full again, so eviction never forgives
+ * an attempt.
+ */
+@Component
+public class LoginAttemptLimiter {
+
+    public static final String LOGIN = "login";
+
+    public static final String IP = "ip";
+
+    private static final int MAX_LISTED_KEYS = 100;
+
+    private final boolean enabled;
+
+    private final Ticker ticker;
+
+    private final Limit loginLimit;
+
+    private final Limit ipLimit;
+
+    @Autowired
+    public LoginAttemptLimiter(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this(applicationProperties, meterRegistry, Ticker.systemTicker());
+    }
+
+    LoginAttemptLimiter(ApplicationProperties applicationProperties, MeterRegistry meterRegistry, Ticker ticker) {
+        ApplicationProperties.Security.LoginRateLimit loginRateLimit = applicationProperties.getSecurity().getLoginRateLimit();
+        this.enabled = loginRateLimit.isEnabled();
+        this.ticker = ticker;
+        this.loginLimit = new Limit(LOGIN, loginRateLimit.getPerLogin(), loginRateLimit.getMaxKeys(), meterRegistry);
+        this.ipLimit = new Limit(IP, loginRateLimit.getPerIp(), loginRateLimit.getMaxKeys(), meterRegistry);
+    }
+
+    /**
+     * Consumes one attempt from the buckets of the given login and client IP, or from neither if one is empty.
+     *
+     * @param login the login or email being authenticated.
+     * @param ip the client IP, or {@code null} if unknown.
+     * @throws TooManyLoginAttemptsException if either bucket is empty.
+     */
+    public void checkAttempt(String login, String ip) {
+        if (!enabled) {
+            return;
+        }
+        long now = ticker.read();
+        if (ip != null) {
+            ipLimit.acquire(ip, now);
+        }
+        if (login != null) {
+            try {
+                loginLimit.acquire(normalize(login), now);
+            } catch (TooManyLoginAttemptsException e) {
+                if (ip != null) {
+                    // The attempt is not made, so it must not count against the other logins of the IP
+                    ipLimit.release(ip);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Refills the bucket of a login after a successful authentication, so earlier typos do not count against it.
+     */
+    public void loginSucceeded(String login) {
+        if (enabled && login != null) {
+            loginLimit.buckets.invalidate(normalize(login));
+        }
+    }
+
+    /**
+     * Forgets the given key in both the login and IP buckets.
+     */
+    public void reset(String key) {
+        loginLimit.buckets.invalidate(normalize(key));
+        ipLimit.buckets.invalidate(key);
+    }
+
+    /**
+     * Returns, for each limit, the number of tracked keys and the currently blocked keys with the number of seconds
+     * until their next attempt is allowed (at most {@value #MAX_LISTED_KEYS} keys each).
+     */
+    public Map<String, Object> getState() {
+        long now = ticker.read();
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("enabled", enabled);
+        state.put(LOGIN, loginLimit.getState(now));
+        state.put(IP, ipLimit.getState(now));
+        return state;
+    }
+
+    private static String normalize(String login) {
+        return login.toLowerCase(Locale.ENGLISH);
+    }
+
+    private final class Limit {
+
+        private final String name;
+
+        private final long interval;
+
+        private final long burstTolerance;
+
+        private final Cache<String, AtomicLong> buckets;
+
+        private final Counter rejected;
+
+        Limit(String name, ApplicationProperties.Security.LoginRateLimit.Bucket bucket, long maxKeys, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.interval = bucket.getRefillPeriod().toNanos();
+            this.burstTolerance = interval * bucket.getCapacity();
+            this.buckets =
+                Caffeine.newBuilder().maximumSize(maxKeys).expireAfterAccess(burstTolerance, TimeUnit.NANOSECONDS).ticker(ticker).build();
+            this.rejected =
+                Counter
+                    .builder("login.attempts.rejected")
+                    .description("Login attempts rejected by the rate limiter")
+                    .tag("limit", name)
+                    .register(meterRegistry);
+            Gauge
+                .builder("login.attempts.tracked", buckets, Cache::estimatedSize)
+                .description("Keys with a login rate limit bucket")
+                .tag("limit", name)
+                .register(meterRegistry);
+            Gauge
+                .builder("login.attempts.blocked", this, limit -> limit.countBlocked(ticker.read()))
+                .description("Keys whose next login attempt would be rejected")
+                .tag("limit", name)
+                .register(meterRegistry);
+        }
+
+        void acquire(String key, long now) {
+            AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(now));
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + interval;
+                long wait = next - now - burstTolerance;
+                if (wait > 0) {
+                    rejected.increment();
+                    throw new TooManyLoginAttemptsException("Too many login attempts per " + name, Duration.ofNanos(wait));
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return;
+                }
+            }
+        }
+
+        void release(String key) {
+            AtomicLong fullAt = buckets.getIfPresent(key);
+            if (fullAt != null) {
+                fullAt.addAndGet(-interval);
+            }
+        }
+
+        long waitTime(AtomicLong fullAt, long now) {
+            return Math.max(fullAt.get(), now) + interval - now - burstTolerance;
+        }
+
+        long countBlocked(long now) {
+            return buckets.asMap().values().stream().filter(fullAt -> waitTime(fullAt, now) > 0).count();
+        }
+
+        Map<String, Object> getState(long now) {
+            Map<String, Long> blocked = new LinkedHashMap<>();
+            buckets
+                .asMap()
+                .forEach((key, fullAt) -> {
+                    long wait = waitTime(fullAt, now);
+                    if (wait > 0 && blocked.size() < MAX_LISTED_KEYS) {
+                        blocked.put(key, TimeUnit.NANOSECONDS.toSeconds(wait - 1) + 1);
+                    }
+                });
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("tracked", buckets.estimatedSize());
+            state.put("blocked", blocked);
+            return state;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.morshed.security;
+
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Management endpoint exposing the state of the {@link LoginAttemptLimiter}, and allowing to unblock a login or IP.
+ */
+@Component
+@Endpoint(id = "loginattempts")
+public class LoginAttemptsEndpoint {
+
+    private final LoginAttemptLimiter loginAttemptLimiter;
+
+    public LoginAttemptsEndpoint(LoginAttemptLimiter loginAttemptLimiter) {
+        this.loginAttemptLimiter = loginAttemptLimiter;
+    }
+
+    @ReadOperation
+    public Map<String, Object> loginAttempts() {
+        return loginAttemptLimiter.getState();
+    }
+
+    @DeleteOperation
+    public void reset(@Selector String key) {
+        loginAttemptLimiter.reset(key);
+    }
+}
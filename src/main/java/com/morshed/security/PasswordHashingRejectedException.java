@@ -0,0 +1,15 @@
+package com.morshed.security;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * This exception is thrown when the password hashing scheduler is saturated, and can not accept more work.
+ */
+public class PasswordHashingRejectedException extends RejectedExecutionException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
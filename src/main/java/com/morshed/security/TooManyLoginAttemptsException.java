@@ -0,0 +1,22 @@
+package com.morshed.security;
+
+import java.time.Duration;
+
+/**
+ * This exception is thrown when a login attempt is rejected by the {@link LoginAttemptLimiter}.
+ */
+public class TooManyLoginAttemptsException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public TooManyLoginAttemptsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
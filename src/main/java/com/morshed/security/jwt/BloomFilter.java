@@ -0,0 +1,85 @@
+package com.morshed.security.jwt;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size Bloom filter of strings, safe for concurrent use.
+ * <p>
+ * Lookups hash the characters in place and only read the bit array, so they do not allocate. Elements can not be
+ * removed: the filter is rebuilt instead.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray bits;
+
+    private final int bitCount;
+
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions the number of elements the filter is sized for.
+     * @param falsePositiveProbability the expected false positive probability once that many elements are added.
+     */
+    BloomFilter(int expectedInsertions, double falsePositiveProbability) {
+        int n = Math.max(expectedInsertions, 1);
+        long optimalBits = (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min((optimalBits + 63) / 64, Integer.MAX_VALUE / 64);
+        this.bits = new AtomicLongArray(Math.max(words, 1));
+        this.bitCount = bits.length() * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    void put(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int getBitCount() {
+        return bitCount;
+    }
+
+    int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units, followed by the MurmurHash3 finalizer to spread the bits, so that both
+     * 32-bit halves can be used for double hashing.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb3f95e94d3e3L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
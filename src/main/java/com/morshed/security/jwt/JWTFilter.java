@@ -1,5 +1,6 @@
 package com.morshed.security.jwt;
 
+import java.util.Optional;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
@@ -17,18 +18,20 @@ public class JWTFilter implements WebFilter {
 
     public static final String AUTHORIZATION_HEADER = "Authorization";
 
-    private final TokenProvider tokenProvider;
+    private final TokenAuthenticationCache tokenAuthenticationCache;
 
-    public JWTFilter(TokenProvider tokenProvider) {
-        this.tokenProvider = tokenProvider;
+    public JWTFilter(TokenAuthenticationCache tokenAuthenticationCache) {
+        this.tokenAuthenticationCache = tokenAuthenticationCache;
     }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
         String jwt = resolveToken(exchange.getRequest());
-        if (StringUtils.hasText(jwt) && this.tokenProvider.validateToken(jwt)) {
-            Authentication authentication = this.tokenProvider.getAuthentication(jwt);
-            return chain.filter(exchange).subscriberContext(ReactiveSecurityContextHolder.withAuthentication(authentication));
+        if (StringUtils.hasText(jwt)) {
+            Optional<Authentication> authentication = this.tokenAuthenticationCache.getAuthentication(jwt);
+            if (authentication.isPresent()) {
+                return chain.filter(exchange).subscriberContext(ReactiveSecurityContextHolder.withAuthentication(authentication.get()));
+            }
         }
         return chain.filter(exchange);
     }
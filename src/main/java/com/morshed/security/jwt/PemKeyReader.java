@@ -0,0 +1,58 @@
+package com.morshed.security.jwt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Reads elliptic curve keys from PEM files: {@code PUBLIC KEY} (X.509 SubjectPublicKeyInfo) and
+ * {@code PRIVATE KEY} (unencrypted PKCS#8), as produced by {@code openssl genpkey} and {@code openssl pkey -pubout}.
+ */
+final class PemKeyReader {
+
+    private static final String KEY_ALGORITHM = "EC";
+
+    private PemKeyReader() {}
+
+    static PublicKey readPublicKey(Resource resource) {
+        try {
+            return KeyFactory.getInstance(KEY_ALGORITHM).generatePublic(new X509EncodedKeySpec(decode(resource, "PUBLIC KEY")));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid JWT public key " + resource.getDescription(), e);
+        }
+    }
+
+    static PrivateKey readPrivateKey(Resource resource) {
+        try {
+            return KeyFactory.getInstance(KEY_ALGORITHM).generatePrivate(new PKCS8EncodedKeySpec(decode(resource, "PRIVATE KEY")));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid JWT private key " + resource.getDescription(), e);
+        }
+    }
+
+    private static byte[] decode(Resource resource, String type) {
+        String pem;
+        try (InputStream inputStream = resource.getInputStream()) {
+            pem = StreamUtils.copyToString(inputStream, StandardCharsets.US_ASCII);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read JWT key " + resource.getDescription(), e);
+        }
+        String header = "-----BEGIN " + type + "-----";
+        String footer = "-----END " + type + "-----";
+        int start = pem.indexOf(header);
+        int end = pem.indexOf(footer);
+        if (start < 0 || end < start) {
+            throw new IllegalStateException("JWT key " + resource.getDescription() + " is not a PEM encoded " + type);
+        }
+        return Base64.getMimeDecoder().decode(pem.substring(start + header.length(), end));
+    }
+}
@@ -0,0 +1,92 @@
+package com.morshed.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.morshed.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of verified JWTs to the {@link Authentication} they resolve to.
+ * <p>
+ * Each token is parsed and verified once, then served from memory until its {@code exp} claim is reached.
+ * Invalid tokens are never cached. Cached tokens are still checked against the {@link TokenRevocationList} on every
+ * call.
+ */
+@Component
+public class TokenAuthenticationCache {
+
+    public static final String CACHE_NAME = "jwtAuthentication";
+
+    private final TokenProvider tokenProvider;
+
+    private final TokenRevocationList tokenRevocationList;
+
+    private final Cache<String, TokenValidationResult> cache;
+
+    public TokenAuthenticationCache(
+        TokenProvider tokenProvider,
+        TokenRevocationList tokenRevocationList,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.tokenProvider = tokenProvider;
+        this.tokenRevocationList = tokenRevocationList;
+        this.cache =
+            Caffeine
+                .newBuilder()
+                .maximumSize(applicationProperties.getSecurity().getAuthentication().getJwt().getCache().getMaxSize())
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the {@link Authentication} for the given token, verifying it only if it is not already cached.
+     *
+     * @param token the compact JWS.
+     * @return the authentication, or empty if the token is not valid or has been revoked.
+     */
+    public Optional<Authentication> getAuthentication(String token) {
+        TokenValidationResult result = cache.get(token, this::verify);
+        if (result == null || tokenRevocationList.isRevoked(result)) {
+            return Optional.empty();
+        }
+        return result.getAuthentication();
+    }
+
+    private TokenValidationResult verify(String token) {
+        TokenValidationResult result = tokenProvider.resolveToken(token);
+        return result.isValid() ? result : null;
+    }
+
+    /**
+     * Evicts each entry at the expiry date of its token, regardless of how often it is read.
+     */
+    private static final class TokenExpiry implements Expiry<String, TokenValidationResult> {
+
+        @Override
+        public long expireAfterCreate(String token, TokenValidationResult result, long currentTime) {
+            return result
+                .getExpiration()
+                .map(expiration -> TimeUnit.MILLISECONDS.toNanos(Math.max(expiration.toEpochMilli() - System.currentTimeMillis(), 0)))
+                .orElse(Long.MAX_VALUE);
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, TokenValidationResult result, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String token, TokenValidationResult result, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
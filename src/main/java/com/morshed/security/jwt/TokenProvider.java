@@ -1,19 +1,23 @@
 package com.morshed.security.jwt;
 
+import com.morshed.config.ApplicationProperties;
+import com.morshed.security.AuthorityRegistry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.jackson.io.JacksonSerializer;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
@@ -26,15 +30,53 @@ public class TokenProvider {
 
     private static final String AUTHORITIES_KEY = "auth";
 
+    private final SignatureAlgorithm signatureAlgorithm;
+
+    /**
+     * Key used to sign tokens: the shared secret with HS512, the private key with ES256. {@code null} on nodes that
+     * only verify tokens.
+     */
     private final Key key;
 
     private final JwtParser jwtParser;
 
+    private final AuthorityRegistry authorityRegistry = new AuthorityRegistry();
+
     private final long tokenValidityInMilliseconds;
 
     private final long tokenValidityInMillisecondsForRememberMe;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties) {
+    public TokenProvider(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        ApplicationProperties.Security.Authentication.Jwt jwtProperties = applicationProperties.getSecurity().getAuthentication().getJwt();
+        signatureAlgorithm = jwtProperties.getSignatureAlgorithm();
+        Key verificationKey;
+        if (signatureAlgorithm == SignatureAlgorithm.HS512) {
+            key = hmacKey(jHipsterProperties);
+            verificationKey = key;
+        } else if (signatureAlgorithm == SignatureAlgorithm.ES256) {
+            if (jwtProperties.getPublicKey() == null) {
+                throw new IllegalStateException(
+                    "The `application.security.authentication.jwt.public-key` key is required with the ES256 signature algorithm"
+                );
+            }
+            verificationKey = PemKeyReader.readPublicKey(jwtProperties.getPublicKey());
+            if (jwtProperties.getPrivateKey() != null) {
+                log.debug("Using an ES256 key pair to sign and verify JWT");
+                key = PemKeyReader.readPrivateKey(jwtProperties.getPrivateKey());
+            } else {
+                log.info("No JWT private key configured: this node can verify JWT but not issue them");
+                key = null;
+            }
+        } else {
+            throw new IllegalStateException("Unsupported JWT signature algorithm " + signatureAlgorithm + ", use HS512 or ES256");
+        }
+        jwtParser = Jwts.parserBuilder().setSigningKey(verificationKey).build();
+        this.tokenValidityInMilliseconds = 1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
+        this.tokenValidityInMillisecondsForRememberMe =
+            1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
+    }
+
+    private Key hmacKey(JHipsterProperties jHipsterProperties) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -48,14 +90,13 @@ public class TokenProvider {
             secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getSecret();
             keyBytes = secret.getBytes(StandardCharsets.UTF_8);
         }
-        key = Keys.hmacShaKeyFor(keyBytes);
-        jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
-        this.tokenValidityInMilliseconds = 1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
-        this.tokenValidityInMillisecondsForRememberMe =
-            1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
+        return Keys.hmacShaKeyFor(keyBytes);
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
+        if (key == null) {
+            throw new IllegalStateException("No JWT private key configured, this node cannot issue tokens");
+        }
         String authorities = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(","));
 
         long now = (new Date()).getTime();
@@ -68,9 +109,11 @@ public class TokenProvider {
 
         return Jwts
             .builder()
+            .setId(newTokenId())
             .setSubject(authentication.getName())
+            .setIssuedAt(new Date(now))
             .claim(AUTHORITIES_KEY, authorities)
-            .signWith(key, SignatureAlgorithm.HS512)
+            .signWith(key, signatureAlgorithm)
             .setExpiration(validity)
             .serializeToJsonWith(new JacksonSerializer())
             .compact();
@@ -78,26 +121,61 @@ public class TokenProvider {
 
     public Authentication getAuthentication(String token) {
         Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        return getAuthentication(claims, token);
+    }
+
+    public boolean validateToken(String authToken) {
+        return resolveToken(authToken).isValid();
+    }
 
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .filter(auth -> !auth.trim().isEmpty())
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
+    /**
+     * Verifies the given token and resolves its {@link Authentication} from a single parse.
+     *
+     * @param authToken the compact JWS.
+     * @return the resolved authentication, or the reason the token was rejected.
+     */
+    public TokenValidationResult resolveToken(String authToken) {
+        try {
+            Claims claims = jwtParser.parseClaimsJws(authToken).getBody();
+            Instant expiration = claims.getExpiration() != null ? claims.getExpiration().toInstant() : null;
+            long issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() / 1000 : 0;
+            return TokenValidationResult.valid(getAuthentication(claims, authToken), claims.getId(), issuedAt, expiration);
+        } catch (ExpiredJwtException e) {
+            return invalidToken(TokenValidationResult.FailureReason.EXPIRED, e);
+        } catch (SecurityException e) {
+            return invalidToken(TokenValidationResult.FailureReason.INVALID_SIGNATURE, e);
+        } catch (MalformedJwtException e) {
+            return invalidToken(TokenValidationResult.FailureReason.MALFORMED, e);
+        } catch (UnsupportedJwtException e) {
+            return invalidToken(TokenValidationResult.FailureReason.UNSUPPORTED, e);
+        } catch (IllegalArgumentException e) {
+            return invalidToken(TokenValidationResult.FailureReason.EMPTY, e);
+        } catch (JwtException e) {
+            return invalidToken(TokenValidationResult.FailureReason.INVALID, e);
+        }
+    }
+
+    private Authentication getAuthentication(Claims claims, String token) {
+        List<GrantedAuthority> authorities = authorityRegistry.getAuthorities(claims.get(AUTHORITIES_KEY).toString());
 
         User principal = new User(claims.getSubject(), "", authorities);
 
         return new UsernamePasswordAuthenticationToken(principal, token, authorities);
     }
 
-    public boolean validateToken(String authToken) {
-        try {
-            jwtParser.parseClaimsJws(authToken);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            log.info("Invalid JWT token.");
-            log.trace("Invalid JWT token trace.", e);
-        }
-        return false;
+    /**
+     * Token ids only need to be unique, not unpredictable (the token is signed), so they do not draw from
+     * {@link java.security.SecureRandom}, which may block the event loop.
+     */
+    private static String newTokenId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    private TokenValidationResult invalidToken(TokenValidationResult.FailureReason failureReason, Exception e) {
+        log.info("Invalid JWT token.");
+        log.debug("JWT token rejected: {}", failureReason);
+        log.trace("Invalid JWT token trace.", e);
+        return TokenValidationResult.invalid(failureReason);
     }
 }
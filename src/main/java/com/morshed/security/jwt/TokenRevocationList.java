@@ -0,0 +1,107 @@
+package com.morshed.security.jwt;
+
+import com.morshed.config.ApplicationProperties;
+import com.morshed.domain.RevokedToken;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory copy of the revoked tokens, checked on every authenticated request.
+ * <p>
+ * Tokens are revoked either one by one, by their {@code jti} claim, or per user, in which case every token of that
+ * subject issued up to the revocation is rejected. Each kind has a {@link BloomFilter} in front of an exact map, so
+ * the common case, a token that is not revoked, costs a few hash probes and no allocation. The exact map rules out
+ * the Bloom filter's false positives.
+ * <p>
+ * Entries are added incrementally as they are revoked, and the whole list is periodically replaced to forget the
+ * expired ones, see {@link com.morshed.service.TokenRevocationService}.
+ */
+@Component
+public class TokenRevocationList {
+
+    private final int expectedRevocations;
+
+    private final double falsePositiveProbability;
+
+    private volatile Snapshot snapshot;
+
+    public TokenRevocationList(ApplicationProperties applicationProperties) {
+        ApplicationProperties.Security.Authentication.Revocation revocation = applicationProperties
+            .getSecurity()
+            .getAuthentication()
+            .getRevocation();
+        this.expectedRevocations = revocation.getExpectedRevocations();
+        this.falsePositiveProbability = revocation.getFalsePositiveProbability();
+        this.snapshot = new Snapshot(expectedRevocations, falsePositiveProbability);
+    }
+
+    /**
+     * Adds a revocation to the current list.
+     */
+    public void revoke(RevokedToken revokedToken) {
+        snapshot.add(revokedToken);
+    }
+
+    /**
+     * Replaces the whole list, sizing the Bloom filters for twice the current number of revocations.
+     */
+    public void replaceAll(Collection<RevokedToken> revokedTokens) {
+        Snapshot replacement = new Snapshot(Math.max(expectedRevocations, 2 * revokedTokens.size()), falsePositiveProbability);
+        revokedTokens.forEach(replacement::add);
+        snapshot = replacement;
+    }
+
+    /**
+     * @return the number of revocations in the list.
+     */
+    public int size() {
+        Snapshot current = snapshot;
+        return current.tokenIds.size() + current.subjects.size();
+    }
+
+    boolean isRevoked(TokenValidationResult result) {
+        Snapshot current = snapshot;
+        String tokenId = result.getTokenId();
+        if (tokenId != null && current.tokenIdFilter.mightContain(tokenId) && current.tokenIds.containsKey(tokenId)) {
+            return true;
+        }
+        String subject = result.getSubject();
+        if (current.subjectFilter.mightContain(subject)) {
+            Long revokedAt = current.subjects.get(subject);
+            return revokedAt != null && result.getIssuedAt() <= revokedAt;
+        }
+        return false;
+    }
+
+    private static final class Snapshot {
+
+        private final BloomFilter tokenIdFilter;
+
+        private final BloomFilter subjectFilter;
+
+        private final Map<String, Boolean> tokenIds = new ConcurrentHashMap<>();
+
+        /**
+         * Subject to the epoch second up to which its tokens are revoked.
+         */
+        private final Map<String, Long> subjects = new ConcurrentHashMap<>();
+
+        Snapshot(int expectedInsertions, double falsePositiveProbability) {
+            this.tokenIdFilter = new BloomFilter(expectedInsertions, falsePositiveProbability);
+            this.subjectFilter = new BloomFilter(expectedInsertions, falsePositiveProbability);
+        }
+
+        void add(RevokedToken revokedToken) {
+            if (revokedToken.getType() == RevokedToken.Type.TOKEN) {
+                // The exact set is updated first, so a concurrent lookup that passes the filter finds the entry
+                tokenIds.put(revokedToken.getValue(), Boolean.TRUE);
+                tokenIdFilter.put(revokedToken.getValue());
+            } else {
+                subjects.merge(revokedToken.getValue(), revokedToken.getRevokedAt().getEpochSecond(), Math::max);
+                subjectFilter.put(revokedToken.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.morshed.security.jwt;
+
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Outcome of verifying a JWT with {@link TokenProvider#resolveToken(String)}: either the resolved
+ * {@link Authentication}, or the reason the token was rejected.
+ */
+public final class TokenValidationResult {
+
+    /**
+     * Why a token was rejected.
+     */
+    public enum FailureReason {
+        EMPTY,
+        MALFORMED,
+        UNSUPPORTED,
+        INVALID_SIGNATURE,
+        EXPIRED,
+        INVALID,
+    }
+
+    private final Authentication authentication;
+
+    private final String tokenId;
+
+    private final long issuedAt;
+
+    private final Instant expiration;
+
+    private final FailureReason failureReason;
+
+    private TokenValidationResult(
+        Authentication authentication,
+        String tokenId,
+        long issuedAt,
+        Instant expiration,
+        FailureReason failureReason
+    ) {
+        this.authentication = authentication;
+        this.tokenId = tokenId;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+        this.failureReason = failureReason;
+    }
+
+    static TokenValidationResult valid(Authentication authentication, String tokenId, long issuedAt, Instant expiration) {
+        return new TokenValidationResult(authentication, tokenId, issuedAt, expiration, null);
+    }
+
+    static TokenValidationResult invalid(FailureReason failureReason) {
+        return new TokenValidationResult(null, null, 0, null, failureReason);
+    }
+
+    public boolean isValid() {
+        return failureReason == null;
+    }
+
+    public Optional<Authentication> getAuthentication() {
+        return Optional.ofNullable(authentication);
+    }
+
+    /**
+     * @return the value of the {@code exp} claim, or empty if the token is invalid or never expires.
+     */
+    public Optional<Instant> getExpiration() {
+        return Optional.ofNullable(expiration);
+    }
+
+    public Optional<FailureReason> getFailureReason() {
+        return Optional.ofNullable(failureReason);
+    }
+
+    /**
+     * Unlike the other getters, this one does not wrap its value, as it is read on every request by the
+     * {@link TokenRevocationList}.
+     *
+     * @return the {@code jti} claim, or {@code null} if the token is invalid or was issued before it was added.
+     */
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    /**
+     * @return the {@code iat} claim in epoch seconds, or {@code 0} if the token is invalid or was issued before it was
+     * added.
+     */
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    String getSubject() {
+        return authentication.getName();
+    }
+}
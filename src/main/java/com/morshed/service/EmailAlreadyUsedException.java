@@ -1,10 +0,0 @@
-package com.morshed.service;
-
-public class EmailAlreadyUsedException extends RuntimeException {
-
-    private static final long serialVersionUID = 1L;
-
-    public EmailAlreadyUsedException() {
-        super("Email is already in use!");
-    }
-}
@@ -0,0 +1,292 @@
+package com.morshed.service;
+
+import com.morshed.config.ApplicationProperties;
+import com.morshed.domain.OutboxMail;
+import com.morshed.repository.OutboxMailRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PreDestroy;
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Service for the outbox of the emails to send, stored in MongoDB so that they survive failures and restarts.
+ * <p>
+ * A worker on each node drains the outbox when emails are queued, and every poll interval otherwise. It claims the due
+ * emails a batch at a time, and sends each batch over a single connection to the mail server. Emails which could not
+ * be sent are tried again with an exponential backoff, until the maximum number of attempts after which they are kept
+ * as {@link OutboxMail.Status#DEAD}. Emails are sent at least once: a node which takes longer than the claim timeout
+ * to send a batch may see another node send it again.
+ */
+@Service
+public class MailOutbox {
+
+    private final Logger log = LoggerFactory.getLogger(MailOutbox.class);
+
+    private final OutboxMailRepository outboxMailRepository;
+
+    private final JavaMailSender javaMailSender;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final ApplicationProperties.MailOutbox properties;
+
+    private final Counter sent;
+
+    private final Counter retried;
+
+    private final Counter deadLettered;
+
+    private final Timer batchTimer;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicLong dead = new AtomicLong();
+
+    private final Sinks.Many<Boolean> wakeUps = Sinks.many().multicast().directBestEffort();
+
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    public MailOutbox(
+        OutboxMailRepository outboxMailRepository,
+        JavaMailSender javaMailSender,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.outboxMailRepository = outboxMailRepository;
+        this.javaMailSender = javaMailSender;
+        this.jHipsterProperties = jHipsterProperties;
+        this.properties = applicationProperties.getMailOutbox();
+        this.sent = Counter.builder("mail.outbox.sent").description("Emails sent from the outbox").register(meterRegistry);
+        this.retried =
+            Counter.builder("mail.outbox.retried").description("Failed emails scheduled for another attempt").register(meterRegistry);
+        this.deadLettered =
+            Counter.builder("mail.outbox.dead.lettered").description("Emails given up on after too many attempts").register(meterRegistry);
+        this.batchTimer = Timer.builder("mail.outbox.batch").description("Sending of a batch of emails").register(meterRegistry);
+        Gauge
+            .builder("mail.outbox.backlog", pending, AtomicLong::get)
+            .description("Emails in the outbox, as of the last drain")
+            .tag("status", "pending")
+            .register(meterRegistry);
+        Gauge
+            .builder("mail.outbox.backlog", dead, AtomicLong::get)
+            .description("Emails in the outbox, as of the last drain")
+            .tag("status", "dead")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Queues emails, and wakes the worker up to send them.
+     *
+     * @param mails the emails to send, of which only the message fields are read.
+     */
+    public Mono<Void> enqueue(List<OutboxMail> mails) {
+        Instant now = Instant.now();
+        for (OutboxMail mail : mails) {
+            mail.setStatus(OutboxMail.Status.PENDING);
+            mail.setAttempts(0);
+            mail.setNextAttemptAt(now);
+            mail.setCreatedDate(now);
+        }
+        return outboxMailRepository.insert(mails).then().doOnSuccess(done -> wakeUps.tryEmitNext(Boolean.TRUE));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startDraining() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        subscriptions.add(
+            Flux
+                .merge(Flux.interval(Duration.ZERO, properties.getPollInterval()).map(tick -> Boolean.TRUE), wakeUps.asFlux())
+                .onBackpressureDrop()
+                .concatMap(
+                    wakeUp ->
+                        drain()
+                            .then(refreshBacklog())
+                            .onErrorResume(e -> {
+                                log.warn("Could not drain the mail outbox: {}", e.toString());
+                                return Mono.empty();
+                            }),
+                    1
+                )
+                .subscribe()
+        );
+    }
+
+    @PreDestroy
+    public void stopDraining() {
+        subscriptions.dispose();
+    }
+
+    /**
+     * Sends the due emails, a batch at a time, until there are none left.
+     *
+     * @return the number of emails sent.
+     */
+    Mono<Integer> drain() {
+        return Mono
+            .defer(this::sendBatch)
+            .repeat()
+            .takeUntil(batch -> batch.claimed < properties.getBatchSize())
+            .reduce(0, (total, batch) -> total + batch.sent);
+    }
+
+    private Mono<Batch> sendBatch() {
+        Instant now = Instant.now();
+        return outboxMailRepository
+            .claimDue(now, properties.getBatchSize(), properties.getClaimTimeout())
+            .collectList()
+            .flatMap(mails -> {
+                if (mails.isEmpty()) {
+                    return Mono.just(new Batch(0, 0));
+                }
+                // JavaMail blocks on the connection to the mail server
+                return Mono
+                    .fromCallable(() -> batchTimer.record(() -> send(mails)))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(failures -> record(mails, failures))
+                    .map(sentCount -> new Batch(mails.size(), sentCount));
+            });
+    }
+
+    /**
+     * Sends the emails over a single connection.
+     *
+     * @return the errors of the emails which could not be sent, by id.
+     */
+    private Map<String, String> send(List<OutboxMail> mails) {
+        Map<String, String> failures = new HashMap<>();
+        Map<MimeMessage, OutboxMail> messages = new IdentityHashMap<>();
+        for (OutboxMail mail : mails) {
+            try {
+                messages.put(
+                    MailService.createMessage(
+                        javaMailSender,
+                        jHipsterProperties.getMail().getFrom(),
+                        mail.getTo(),
+                        mail.getSubject(),
+                        mail.getContent(),
+                        mail.isMultipart(),
+                        mail.isHtml()
+                    ),
+                    mail
+                );
+            } catch (MessagingException e) {
+                failures.put(mail.getId(), e.toString());
+            }
+        }
+        if (messages.isEmpty()) {
+            return failures;
+        }
+        try {
+            javaMailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                messages.values().forEach(mail -> failures.put(mail.getId(), e.toString()));
+            }
+            e.getFailedMessages().forEach((message, cause) -> failures.put(messages.get(message).getId(), cause.toString()));
+        } catch (MailException e) {
+            messages.values().forEach(mail -> failures.put(mail.getId(), e.toString()));
+        }
+        return failures;
+    }
+
+    /**
+     * Deletes the sent emails, and schedules the next attempt of the others or gives up on them.
+     *
+     * @return the number of sent emails.
+     */
+    private Mono<Integer> record(List<OutboxMail> mails, Map<String, String> failures) {
+        Instant now = Instant.now();
+        List<String> sentIds = new ArrayList<>();
+        List<OutboxMail> failed = new ArrayList<>();
+        for (OutboxMail mail : mails) {
+            String failure = failures.get(mail.getId());
+            if (failure == null) {
+                sentIds.add(mail.getId());
+                continue;
+            }
+            mail.setAttempts(mail.getAttempts() + 1);
+            mail.setLastError(failure);
+            mail.setClaim(null);
+            if (mail.getAttempts() >= properties.getMaxAttempts()) {
+                log.error("Giving up on email to '{}' after {} attempts: {}", mail.getTo(), mail.getAttempts(), failure);
+                mail.setStatus(OutboxMail.Status.DEAD);
+                deadLettered.increment();
+            } else {
+                log.warn("Email could not be sent to '{}', attempt {}: {}", mail.getTo(), mail.getAttempts(), failure);
+                mail.setNextAttemptAt(now.plus(backoff(mail.getAttempts())));
+                retried.increment();
+            }
+            failed.add(mail);
+        }
+        sent.increment(sentIds.size());
+        log.debug("Sent {} of {} emails", sentIds.size(), mails.size());
+        Mono<Long> deleted = sentIds.isEmpty() ? Mono.just(0L) : outboxMailRepository.deleteByIdIn(sentIds);
+        return deleted.thenMany(outboxMailRepository.saveAll(failed)).then(Mono.just(sentIds.size()));
+    }
+
+    /**
+     * Returns the delay before the next attempt of an email, which doubles on each attempt.
+     */
+    Duration backoff(int attempts) {
+        Duration backoff = properties.getInitialBackoff();
+        for (int i = 1; i < attempts && backoff.compareTo(properties.getMaxBackoff()) < 0; i++) {
+            backoff = backoff.multipliedBy(2);
+        }
+        return backoff.compareTo(properties.getMaxBackoff()) < 0 ? backoff : properties.getMaxBackoff();
+    }
+
+    private Mono<Void> refreshBacklog() {
+        return Mono
+            .zip(outboxMailRepository.countByStatus(OutboxMail.Status.PENDING), outboxMailRepository.countByStatus(OutboxMail.Status.DEAD))
+            .doOnNext(counts -> {
+                pending.set(counts.getT1());
+                dead.set(counts.getT2());
+            })
+            .then();
+    }
+
+    private static final class Batch {
+
+        private final int claimed;
+
+        private final int sent;
+
+        private Batch(int claimed, int sent) {
+            this.claimed = claimed;
+            this.sent = sent;
+        }
+    }
+}
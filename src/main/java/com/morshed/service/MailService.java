@@ -1,26 +1,44 @@
 package com.morshed.service;
 
+import com.morshed.config.AsyncConfiguration;
+import com.morshed.domain.OutboxMail;
 import com.morshed.domain.User;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.MessageSource;
 import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring5.SpringTemplateEngine;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import tech.jhipster.config.JHipsterProperties;
 
 /**
  * Service for sending emails.
  * <p>
- * We use the {@link Async} annotation to send emails asynchronously.
+ * When the {@link MailOutbox} is enabled, emails are rendered on the mail executor and queued there by the returned
+ * {@link Mono}, so that they are stored before the caller goes on, or the caller fails. Otherwise, they are rendered and
+ * sent on the mail executor, and the returned {@link Mono} completes once they are handed over to it.
+ * <p>
+ * When the mail executor is saturated, the emails are rendered and sent on Reactor's bounded elastic scheduler instead,
+ * never on the caller, which is usually an event loop thread.
  */
 @Service
 public class MailService {
@@ -39,74 +57,190 @@ public class MailService {
 
     private final SpringTemplateEngine templateEngine;
 
+    private final MailOutbox mailOutbox;
+
+    private final Executor mailExecutor;
+
+    private final Map<Locale, Map<String, String>> subjects = new ConcurrentHashMap<>();
+
     public MailService(
         JHipsterProperties jHipsterProperties,
         JavaMailSender javaMailSender,
         MessageSource messageSource,
-        SpringTemplateEngine templateEngine
+        SpringTemplateEngine templateEngine,
+        MailOutbox mailOutbox,
+        @Qualifier(AsyncConfiguration.MAIL_EXECUTOR) Executor mailExecutor
     ) {
         this.jHipsterProperties = jHipsterProperties;
         this.javaMailSender = javaMailSender;
         this.messageSource = messageSource;
         this.templateEngine = templateEngine;
+        this.mailOutbox = mailOutbox;
+        this.mailExecutor = mailExecutor;
     }
 
-    @Async
-    public void sendEmail(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
-        log.debug(
-            "Send email[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
-            isMultipart,
-            isHtml,
-            to,
-            subject,
-            content
-        );
+    public Mono<Void> sendEmail(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
+        return send(() -> {
+            log.debug(
+                "Send email[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
+                isMultipart,
+                isHtml,
+                to,
+                subject,
+                content
+            );
+            return Collections.singletonList(newMail(to, subject, content, isMultipart, isHtml));
+        });
+    }
+
+    private MimeMessage createMessage(String to, String subject, String content, boolean isMultipart, boolean isHtml)
+        throws MessagingException {
+        return createMessage(javaMailSender, jHipsterProperties.getMail().getFrom(), to, subject, content, isMultipart, isHtml);
+    }
 
+    static MimeMessage createMessage(
+        JavaMailSender javaMailSender,
+        String from,
+        String to,
+        String subject,
+        String content,
+        boolean isMultipart,
+        boolean isHtml
+    ) throws MessagingException {
         // Prepare message using a Spring helper
         MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper message = new MimeMessageHelper(mimeMessage, isMultipart, StandardCharsets.UTF_8.name());
+        message.setTo(to);
+        message.setFrom(from);
+        message.setSubject(subject);
+        message.setText(content, isHtml);
+        return mimeMessage;
+    }
+
+    public Mono<Void> sendEmailFromTemplate(User user, String templateName, String titleKey) {
+        return sendEmailsFromTemplate(Collections.singletonList(user), templateName, titleKey);
+    }
+
+    /**
+     * Sends an email from a template to each of the users, over a single connection to the mail server.
+     */
+    public Mono<Void> sendEmailsFromTemplate(List<User> users, String templateName, String titleKey) {
+        return send(() -> {
+            List<OutboxMail> mails = new ArrayList<>(users.size());
+            for (User user : users) {
+                if (user.getEmail() == null) {
+                    log.debug("Email doesn't exist for user '{}'", user.getLogin());
+                    continue;
+                }
+                mails.add(newMailFromTemplate(user, templateName, titleKey));
+            }
+            return mails;
+        });
+    }
+
+    private Mono<Void> send(Supplier<List<OutboxMail>> mails) {
+        if (mailOutbox.isEnabled()) {
+            return Mono
+                .<List<OutboxMail>>create(sink ->
+                    execute(() -> {
+                        try {
+                            sink.success(mails.get());
+                        } catch (RuntimeException e) {
+                            sink.error(e);
+                        }
+                    })
+                )
+                .filter(list -> !list.isEmpty())
+                .flatMap(list -> mailOutbox.enqueue(list).doOnSuccess(done -> log.debug("Queued {} emails", list.size())));
+        }
+        return Mono.fromRunnable(() -> execute(() -> sendNow(mails.get())));
+    }
+
+    private void execute(Runnable task) {
         try {
-            MimeMessageHelper message = new MimeMessageHelper(mimeMessage, isMultipart, StandardCharsets.UTF_8.name());
-            message.setTo(to);
-            message.setFrom(jHipsterProperties.getMail().getFrom());
-            message.setSubject(subject);
-            message.setText(content, isHtml);
-            javaMailSender.send(mimeMessage);
-            log.debug("Sent email to User '{}'", to);
-        } catch (MailException | MessagingException e) {
-            log.warn("Email could not be sent to user '{}'", to, e);
+            mailExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Counted in executor.rejected
+            log.debug("The mail executor is saturated, running the task on the bounded elastic scheduler");
+            Schedulers.boundedElastic().schedule(task);
         }
     }
 
-    @Async
-    public void sendEmailFromTemplate(User user, String templateName, String titleKey) {
-        if (user.getEmail() == null) {
-            log.debug("Email doesn't exist for user '{}'", user.getLogin());
+    private void sendNow(List<OutboxMail> mails) {
+        List<MimeMessage> messages = new ArrayList<>(mails.size());
+        for (OutboxMail mail : mails) {
+            try {
+                messages.add(createMessage(mail.getTo(), mail.getSubject(), mail.getContent(), mail.isMultipart(), mail.isHtml()));
+            } catch (MessagingException e) {
+                log.warn("Email could not be prepared for user '{}'", mail.getTo(), e);
+            }
+        }
+        if (messages.isEmpty()) {
             return;
         }
+        try {
+            if (messages.size() == 1) {
+                javaMailSender.send(messages.get(0));
+            } else {
+                javaMailSender.send(messages.toArray(new MimeMessage[0]));
+            }
+            log.debug("Sent {} emails", messages.size());
+        } catch (MailSendException e) {
+            log.warn("{} of {} emails could not be sent", e.getFailedMessages().size(), messages.size(), e);
+        } catch (MailException e) {
+            log.warn("{} emails could not be sent", messages.size(), e);
+        }
+    }
+
+    private static OutboxMail newMail(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
+        OutboxMail mail = new OutboxMail();
+        mail.setTo(to);
+        mail.setSubject(subject);
+        mail.setContent(content);
+        mail.setMultipart(isMultipart);
+        mail.setHtml(isHtml);
+        return mail;
+    }
+
+    /**
+     * Renders an email from a template, with its subject from the {@code titleKey} message, for a user with an email.
+     * <p>
+     * Subjects are cached by locale. Templates are parsed once and kept in Thymeleaf's template cache, unless
+     * {@code spring.thymeleaf.cache} is disabled as in development, and their expressions are compiled with
+     * {@code spring.thymeleaf.enable-spring-el-compiler}.
+     */
+    OutboxMail newMailFromTemplate(User user, String templateName, String titleKey) {
         Locale locale = Locale.forLanguageTag(user.getLangKey());
+        String subject = subjects
+            .computeIfAbsent(locale, key -> new ConcurrentHashMap<>())
+            .computeIfAbsent(titleKey, key -> messageSource.getMessage(key, null, locale));
+        return newMail(user.getEmail(), subject, processTemplate(user, templateName, locale), false, true);
+    }
+
+    private String processTemplate(User user, String templateName, Locale locale) {
         Context context = new Context(locale);
         context.setVariable(USER, user);
         context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
-        String content = templateEngine.process(templateName, context);
-        String subject = messageSource.getMessage(titleKey, null, locale);
-        sendEmail(user.getEmail(), subject, content, false, true);
+        return templateEngine.process(templateName, context);
     }
 
-    @Async
-    public void sendActivationEmail(User user) {
+    public Mono<Void> sendActivationEmail(User user) {
         log.debug("Sending activation email to '{}'", user.getEmail());
-        sendEmailFromTemplate(user, "mail/activationEmail", "email.activation.title");
+        return sendEmailFromTemplate(user, "mail/activationEmail", "email.activation.title");
     }
 
-    @Async
-    public void sendCreationEmail(User user) {
+    public Mono<Void> sendCreationEmail(User user) {
         log.debug("Sending creation email to '{}'", user.getEmail());
-        sendEmailFromTemplate(user, "mail/creationEmail", "email.activation.title");
+        return sendEmailFromTemplate(user, "mail/creationEmail", "email.activation.title");
+    }
+
+    public Mono<Void> sendCreationEmails(List<User> users) {
+        log.debug("Sending creation emails to {} users", users.size());
+        return sendEmailsFromTemplate(users, "mail/creationEmail", "email.activation.title");
     }
 
-    @Async
-    public void sendPasswordResetMail(User user) {
+    public Mono<Void> sendPasswordResetMail(User user) {
         log.debug("Sending password reset email to '{}'", user.getEmail());
-        sendEmailFromTemplate(user, "mail/passwordResetEmail", "email.reset.title");
+        return sendEmailFromTemplate(user, "mail/passwordResetEmail", "email.reset.title");
     }
 }
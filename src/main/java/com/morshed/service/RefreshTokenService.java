@@ -0,0 +1,174 @@
+package com.morshed.service;
+
+import com.morshed.config.ApplicationProperties;
+import com.morshed.domain.RefreshToken;
+import com.morshed.domain.User;
+import com.morshed.repository.RefreshTokenRepository;
+import com.morshed.repository.UserRepository;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Service for issuing and rotating refresh tokens.
+ * <p>
+ * A refresh token is 256 random bits, returned to the client once; only its SHA-256 hash is stored, so a database
+ * leak does not leak usable tokens. Each token is removed when it is used and replaced by a new one, so a stolen token
+ * stops working as soon as either party uses it.
+ * <p>
+ * The user of a token is read from the {@link UserRepository} rather than from the
+ * {@link com.morshed.repository.UserCache}, as by {@link com.morshed.security.DomainUserDetailsService}.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final UserRepository userRepository;
+
+    private final ApplicationProperties.Security.Authentication.RefreshToken refreshTokenProperties;
+
+    public RefreshTokenService(
+        RefreshTokenRepository refreshTokenRepository,
+        UserRepository userRepository,
+        ApplicationProperties applicationProperties
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.refreshTokenProperties = applicationProperties.getSecurity().getAuthentication().getRefreshToken();
+    }
+
+    /**
+     * Issues a new refresh token for the given user.
+     *
+     * @param login the login of the authenticated user.
+     * @param rememberMe whether the token gets the longer "remember me" validity.
+     * @return the refresh token to return to the client.
+     */
+    public Mono<String> createRefreshToken(String login, boolean rememberMe) {
+        Duration validity = rememberMe ? refreshTokenProperties.getTokenValidityForRememberMe() : refreshTokenProperties.getTokenValidity();
+        // SecureRandom may read from the OS entropy source, so keep it off the event loop
+        return Mono
+            .fromCallable(this::generateToken)
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(token -> {
+                RefreshToken refreshToken = new RefreshToken();
+                refreshToken.setTokenHash(hash(token));
+                refreshToken.setLogin(login);
+                refreshToken.setRememberMe(rememberMe);
+                refreshToken.setExpiresAt(Instant.now().plus(validity));
+                return refreshTokenRepository.save(refreshToken).thenReturn(token);
+            });
+    }
+
+    /**
+     * Consumes a refresh token and issues its replacement.
+     *
+     * @param token the refresh token presented by the client.
+     * @return the authentication of the token's user, and the new refresh token.
+     * @throws BadCredentialsException if the token is unknown, already used, expired, or its user is no longer active.
+     */
+    public Mono<Rotation> rotate(String token) {
+        return refreshTokenRepository
+            .deleteOneByTokenHash(hash(token))
+            .filter(refreshToken -> refreshToken.getExpiresAt().isAfter(Instant.now()))
+            .switchIfEmpty(Mono.error(() -> new BadCredentialsException("Invalid refresh token")))
+            .flatMap(refreshToken ->
+                // Like a login, a renewal must see a deactivation or a removed authority made on any node
+                userRepository
+                    .findOneByLogin(refreshToken.getLogin())
+                    .filter(User::isActivated)
+                    .switchIfEmpty(Mono.error(() -> new BadCredentialsException("Invalid refresh token")))
+                    .flatMap(user ->
+                        createRefreshToken(user.getLogin(), refreshToken.isRememberMe())
+                            .map(newToken -> new Rotation(createAuthentication(user), newToken, refreshToken.isRememberMe()))
+                    )
+            )
+            .doOnNext(rotation -> log.debug("Rotated refresh token of {}", rotation.getAuthentication().getName()));
+    }
+
+    /**
+     * Deletes a refresh token, if it exists.
+     *
+     * @param token the refresh token presented by the client.
+     */
+    public Mono<Void> deleteRefreshToken(String token) {
+        return refreshTokenRepository.deleteOneByTokenHash(hash(token)).then();
+    }
+
+    private Authentication createAuthentication(User user) {
+        List<GrantedAuthority> authorities = user
+            .getAuthorities()
+            .stream()
+            .map(authority -> new SimpleGrantedAuthority(authority.getName()))
+            .collect(Collectors.toList());
+        return new UsernamePasswordAuthenticationToken(user.getLogin(), null, authorities);
+    }
+
+    private String generateToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * The outcome of a successful refresh.
+     */
+    public static final class Rotation {
+
+        private final Authentication authentication;
+
+        private final String refreshToken;
+
+        private final boolean rememberMe;
+
+        Rotation(Authentication authentication, String refreshToken, boolean rememberMe) {
+            this.authentication = authentication;
+            this.refreshToken = refreshToken;
+            this.rememberMe = rememberMe;
+        }
+
+        public Authentication getAuthentication() {
+            return authentication;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+
+        public boolean isRememberMe() {
+            return rememberMe;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.morshed.service;
+
+import com.morshed.config.ApplicationProperties;
+import com.morshed.domain.RevokedToken;
+import com.morshed.repository.RefreshTokenRepository;
+import com.morshed.repository.RevokedTokenRepository;
+import com.morshed.security.jwt.TokenRevocationList;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Service for revoking access tokens before they expire.
+ * <p>
+ * Revocations are stored in MongoDB and mirrored in the {@link TokenRevocationList} of every node. A node sees its
+ * own revocations immediately, and the other nodes' ones within a poll interval, or as soon as they are inserted
+ * when the change stream is enabled. The list is rebuilt from the database every rebuild interval, to forget the
+ * revocations removed by the TTL index, and then polled for the revocations made since the rebuild started.
+ */
+@Service
+public class TokenRevocationService {
+
+    /**
+     * How far back each poll looks before the latest revocation it has seen, to tolerate clock skew between nodes.
+     */
+    private static final Duration POLL_OVERLAP = Duration.ofMinutes(1);
+
+    private final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final TokenRevocationList tokenRevocationList;
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    private final ApplicationProperties.Security.Authentication.Revocation revocationProperties;
+
+    private final Duration maxTokenValidity;
+
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    private volatile Instant lastRevokedAt = Instant.EPOCH;
+
+    private volatile Instant lastRebuild = Instant.EPOCH;
+
+    public TokenRevocationService(
+        RevokedTokenRepository revokedTokenRepository,
+        RefreshTokenRepository refreshTokenRepository,
+        TokenRevocationList tokenRevocationList,
+        ReactiveMongoTemplate reactiveMongoTemplate,
+        ApplicationProperties applicationProperties,
+        JHipsterProperties jHipsterProperties
+    ) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenRevocationList = tokenRevocationList;
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.revocationProperties = applicationProperties.getSecurity().getAuthentication().getRevocation();
+        this.maxTokenValidity =
+            Duration.ofSeconds(
+                Math.max(
+                    jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds(),
+                    jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe()
+                )
+            );
+    }
+
+    /**
+     * Revokes a single access token.
+     *
+     * @param tokenId the {@code jti} claim of the token.
+     * @param expiresAt the {@code exp} claim of the token, after which the revocation is not needed anymore.
+     */
+    public Mono<Void> revokeToken(String tokenId, Instant expiresAt) {
+        log.debug("Revoking token {}", tokenId);
+        return revoke(RevokedToken.Type.TOKEN, tokenId, expiresAt);
+    }
+
+    /**
+     * Revokes all the access tokens issued to a user so far, and deletes their refresh tokens.
+     *
+     * @param login the login of the user, which is the {@code sub} claim of their tokens.
+     */
+    public Mono<Void> revokeUser(String login) {
+        log.debug("Revoking all tokens of user {}", login);
+        return revoke(RevokedToken.Type.USER, login, Instant.now().plus(maxTokenValidity))
+            .then(refreshTokenRepository.deleteAllByLogin(login))
+            .then();
+    }
+
+    private Mono<Void> revoke(RevokedToken.Type type, String value, Instant expiresAt) {
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setType(type);
+        revokedToken.setValue(value);
+        revokedToken.setRevokedAt(Instant.now());
+        revokedToken.setExpiresAt(expiresAt);
+        return revokedTokenRepository.save(revokedToken).doOnNext(tokenRevocationList::revoke).then();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRefreshing() {
+        if (!revocationProperties.isChangeStream()) {
+            subscriptions.add(
+                Flux
+                    .interval(Duration.ZERO, revocationProperties.getPollInterval())
+                    .onBackpressureDrop()
+                    .concatMap(tick -> refresh().onErrorResume(this::logRefreshError))
+                    .subscribe()
+            );
+        } else {
+            // New revocations come from the change stream, so the list only needs to be rebuilt periodically
+            subscriptions.add(
+                Flux
+                    .interval(Duration.ZERO, revocationProperties.getRebuildInterval())
+                    .onBackpressureDrop()
+                    .concatMap(tick -> rebuild().onErrorResume(this::logRefreshError))
+                    .subscribe()
+            );
+            subscriptions.add(
+                reactiveMongoTemplate
+                    .changeStream(RevokedToken.class)
+                    .watchCollection(RevokedToken.class)
+                    .filter(Criteria.where("operationType").is("insert"))
+                    .listen()
+                    .doOnNext(event -> {
+                        if (event.getBody() != null) {
+                            tokenRevocationList.revoke(event.getBody());
+                        }
+                    })
+                    // Catches up with the revocations made before the stream was (re)opened
+                    .mergeWith(poll().then(Mono.empty()))
+                    .doOnError(this::logRefreshError)
+                    .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofMinutes(1)))
+                    .subscribe()
+            );
+        }
+    }
+
+    @PreDestroy
+    public void stopRefreshing() {
+        subscriptions.dispose();
+    }
+
+    /**
+     * Reloads the whole revocation list if it is due for a rebuild, and otherwise fetches the latest revocations.
+     */
+    Mono<Void> refresh() {
+        if (lastRebuild.plus(revocationProperties.getRebuildInterval()).isBefore(Instant.now())) {
+            return rebuild();
+        }
+        return poll();
+    }
+
+    private Mono<Void> rebuild() {
+        Instant now = Instant.now();
+        return revokedTokenRepository
+            .findAllByExpiresAtAfter(now)
+            .collectList()
+            .doOnNext(revokedTokens -> {
+                tokenRevocationList.replaceAll(revokedTokens);
+                updateLastRevokedAt(revokedTokens);
+                lastRebuild = now;
+                log.debug("Rebuilt token revocation list with {} entries", revokedTokens.size());
+            })
+            // Revocations made while the list was read went to the list it replaced, so they are read again
+            .then(poll(now));
+    }
+
+    private Mono<Void> poll() {
+        return Mono.defer(() -> poll(lastRevokedAt));
+    }
+
+    private Mono<Void> poll(Instant since) {
+        return revokedTokenRepository
+            .findAllByRevokedAtGreaterThanEqual(since.minus(POLL_OVERLAP))
+            .doOnNext(tokenRevocationList::revoke)
+            .collectList()
+            .doOnNext(this::updateLastRevokedAt)
+            .then();
+    }
+
+    private void updateLastRevokedAt(List<RevokedToken> revokedTokens) {
+        revokedTokens
+            .stream()
+            .map(RevokedToken::getRevokedAt)
+            .max(Instant::compareTo)
+            .filter(revokedAt -> revokedAt.isAfter(lastRevokedAt))
+            .ifPresent(revokedAt -> lastRevokedAt = revokedAt);
+    }
+
+    private Mono<Void> logRefreshError(Throwable e) {
+        log.warn("Could not refresh the token revocation list: {}", e.getMessage());
+        return Mono.empty();
+    }
+}
@@ -0,0 +1,225 @@
+package com.morshed.service;
+
+import com.morshed.config.ApplicationProperties;
+import com.morshed.config.Constants;
+import com.morshed.config.PasswordHashingConfiguration;
+import com.morshed.domain.Authority;
+import com.morshed.domain.User;
+import com.morshed.repository.AuthorityRepository;
+import com.morshed.repository.UserRepository;
+import com.morshed.security.SecurityUtils;
+import com.morshed.service.dto.AdminUserDTO;
+import com.morshed.service.dto.UserImportResult;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+/**
+ * Service class for importing users in bulk.
+ * <p>
+ * Rows are validated in parallel, and the users built on the password hashing scheduler, with at most as many rows in
+ * flight as it has threads, so an import does not fill the queue logins also use. They are then inserted in chunks of
+ * {@code application.user-import.chunk-size}, with one {@code insertMany} each: the unique indexes reject the users
+ * whose login or email is already used, and the insert resumes after each of them with another request. The creation
+ * emails of each chunk are sent as one batch.
+ * <p>
+ * A row rejected by the password hashing scheduler, saturated by logins, is retried {@value #HASHING_RETRIES} times
+ * with a backoff, and then reported as {@link UserImportResult.Status#UNAVAILABLE}: the import goes on with the
+ * other rows.
+ */
+@Service
+public class UserImportService {
+
+    private static final int HASHING_RETRIES = 3;
+
+    private final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private final UserService userService;
+
+    private final UserRepository userRepository;
+
+    private final AuthorityRepository authorityRepository;
+
+    private final MailService mailService;
+
+    private final Validator validator;
+
+    private final Scheduler passwordHashingScheduler;
+
+    private final int chunkSize;
+
+    private final int hashingConcurrency;
+
+    private final Retry hashingRetry;
+
+    public UserImportService(
+        UserService userService,
+        UserRepository userRepository,
+        AuthorityRepository authorityRepository,
+        MailService mailService,
+        Validator validator,
+        @Qualifier(PasswordHashingConfiguration.PASSWORD_HASHING_SCHEDULER) Scheduler passwordHashingScheduler,
+        ApplicationProperties applicationProperties
+    ) {
+        this.userService = userService;
+        this.userRepository = userRepository;
+        this.authorityRepository = authorityRepository;
+        this.mailService = mailService;
+        this.validator = validator;
+        this.passwordHashingScheduler = passwordHashingScheduler;
+        this.chunkSize = applicationProperties.getUserImport().getChunkSize();
+        this.hashingConcurrency = applicationProperties.getSecurity().getPasswordHashing().getPoolSize();
+        this.hashingRetry =
+            Retry
+                .backoff(HASHING_RETRIES, applicationProperties.getSecurity().getPasswordHashing().getRetryAfter())
+                .filter(RejectedExecutionException.class::isInstance)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    /**
+     * Imports users, as {@link UserService#createUser(AdminUserDTO)} would create them one by one.
+     *
+     * @param userDTOs the users to import.
+     * @return the outcome of each row, numbered from 1, in the order of the rows.
+     */
+    public Flux<UserImportResult> importUsers(Flux<AdminUserDTO> userDTOs) {
+        Mono<String> currentLogin = SecurityUtils.getCurrentUserLogin().defaultIfEmpty(Constants.SYSTEM);
+        Mono<Map<String, Authority>> authorities = authorityRepository.findAll().collectMap(Authority::getName);
+        return Mono
+            .zip(currentLogin, authorities)
+            .flatMapMany(loginAndAuthorities ->
+                userDTOs
+                    .index((index, userDTO) -> prepare(index + 1, userDTO, loginAndAuthorities.getT2(), loginAndAuthorities.getT1()))
+                    .flatMapSequential(row -> row, hashingConcurrency)
+                    .buffer(chunkSize)
+                    .concatMap(this::insert)
+            );
+    }
+
+    private Mono<ImportRow> prepare(long row, AdminUserDTO userDTO, Map<String, Authority> authorities, String currentLogin) {
+        return Mono
+            .fromCallable(() -> validate(userDTO))
+            .subscribeOn(Schedulers.parallel())
+            .flatMap(errors -> {
+                if (!errors.isEmpty()) {
+                    return Mono.just(new ImportRow(row, userDTO.getLogin(), UserImportResult.Status.INVALID, errors));
+                }
+                Set<Authority> userAuthorities = userDTO.getAuthorities() == null
+                    ? new HashSet<>()
+                    : userDTO.getAuthorities().stream().map(authorities::get).filter(Objects::nonNull).collect(Collectors.toSet());
+                return Mono
+                    .fromCallable(() -> userService.newManagedUser(userDTO, userAuthorities))
+                    .subscribeOn(passwordHashingScheduler)
+                    .retryWhen(hashingRetry)
+                    .map(user -> {
+                        user.setCreatedBy(currentLogin);
+                        user.setLastModifiedBy(currentLogin);
+                        return new ImportRow(row, user);
+                    })
+                    .onErrorResume(
+                        RejectedExecutionException.class,
+                        e -> {
+                            log.warn("Could not hash the password of imported user {}: {}", userDTO.getLogin(), e.getMessage());
+                            return Mono.just(new ImportRow(row, userDTO.getLogin(), UserImportResult.Status.UNAVAILABLE, "error.http.503"));
+                        }
+                    );
+            });
+    }
+
+    private String validate(AdminUserDTO userDTO) {
+        if (userDTO.getId() != null) {
+            return "error.idexists";
+        }
+        Set<ConstraintViolation<AdminUserDTO>> violations = validator.validate(userDTO);
+        return violations
+            .stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining("; "));
+    }
+
+    private Flux<UserImportResult> insert(List<ImportRow> rows) {
+        List<User> users = rows.stream().map(row -> row.user).filter(Objects::nonNull).collect(Collectors.toList());
+        Mono<Map<Integer, String>> failures = users.isEmpty()
+            ? Mono.just(Collections.emptyMap())
+            : userRepository.insertAllSkippingFailures(users);
+        return failures.flatMapMany(failuresByIndex -> {
+            List<UserImportResult> results = new ArrayList<>(rows.size());
+            List<User> createdUsers = new ArrayList<>(users.size());
+            int index = 0;
+            for (ImportRow row : rows) {
+                if (row.user == null) {
+                    results.add(new UserImportResult(row.row, row.login, row.status, row.message));
+                    continue;
+                }
+                String failure = failuresByIndex.get(index++);
+                if (failure == null) {
+                    createdUsers.add(row.user);
+                    results.add(new UserImportResult(row.row, row.login, UserImportResult.Status.CREATED, null));
+                } else {
+                    results.add(new UserImportResult(row.row, row.login, UserImportResult.Status.CONFLICT, conflictMessage(failure)));
+                }
+            }
+            log.debug("Imported {} of {} users", createdUsers.size(), rows.size());
+            // The creation emails are queued before the results are returned, so an interrupted import loses none
+            Mono<Void> emails = createdUsers.isEmpty() ? Mono.empty() : mailService.sendCreationEmails(createdUsers);
+            return emails.thenMany(Flux.fromIterable(results));
+        });
+    }
+
+    private static String conflictMessage(String failure) {
+        if (User.isDuplicateKeyIn(failure, User.LOGIN_INDEX)) {
+            return "error.userexists";
+        }
+        if (User.isDuplicateKeyIn(failure, User.EMAIL_INDEX)) {
+            return "error.emailexists";
+        }
+        return "error.http.409";
+    }
+
+    private static final class ImportRow {
+
+        private final long row;
+
+        private final String login;
+
+        private final User user;
+
+        private final UserImportResult.Status status;
+
+        private final String message;
+
+        private ImportRow(long row, User user) {
+            this.row = row;
+            this.login = user.getLogin();
+            this.user = user;
+            this.status = null;
+            this.message = null;
+        }
+
+        private ImportRow(long row, String login, UserImportResult.Status status, String message) {
+            this.row = row;
+            this.login = login;
+            this.user = null;
+            this.status = status;
+            this.message = message;
+        }
+    }
+}
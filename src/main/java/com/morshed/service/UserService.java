@@ -1,25 +1,40 @@
 package com.morshed.service;
 
+import com.morshed.config.ApplicationProperties;
 import com.morshed.config.Constants;
+import com.morshed.config.PasswordHashingConfiguration;
 import com.morshed.domain.Authority;
 import com.morshed.domain.User;
 import com.morshed.repository.AuthorityRepository;
+import com.morshed.repository.UserCache;
+import com.morshed.repository.UserCount;
+import com.morshed.repository.UserCursor;
 import com.morshed.repository.UserRepository;
 import com.morshed.security.AuthoritiesConstants;
 import com.morshed.security.SecurityUtils;
 import com.morshed.service.dto.AdminUserDTO;
+import com.morshed.service.dto.CursorPage;
 import com.morshed.service.dto.UserDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 import tech.jhipster.security.RandomUtil;
 
@@ -29,18 +44,64 @@ import tech.jhipster.security.RandomUtil;
 @Service
 public class UserService {
 
+    private static final Duration NOT_ACTIVATED_USER_VALIDITY = Duration.ofDays(3);
+
+    private static final Duration RESET_KEY_VALIDITY = Duration.ofDays(1);
+
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
 
+    private final UserCache userCache;
+
+    private final UserCount userCount;
+
     private final PasswordEncoder passwordEncoder;
 
     private final AuthorityRepository authorityRepository;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository) {
+    private final Scheduler passwordHashingScheduler;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter notActivatedUsersDeleted;
+
+    private final Timer notActivatedUsersRemoval;
+
+    private final int cleanupChunkSize;
+
+    private final int cleanupConcurrency;
+
+    private final boolean expireWithTtlIndex;
+
+    public UserService(
+        UserRepository userRepository,
+        UserCache userCache,
+        UserCount userCount,
+        PasswordEncoder passwordEncoder,
+        AuthorityRepository authorityRepository,
+        @Qualifier(PasswordHashingConfiguration.PASSWORD_HASHING_SCHEDULER) Scheduler passwordHashingScheduler,
+        TokenRevocationService tokenRevocationService,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.userCount = userCount;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
+        this.passwordHashingScheduler = passwordHashingScheduler;
+        this.tokenRevocationService = tokenRevocationService;
+        this.meterRegistry = meterRegistry;
+        this.notActivatedUsersDeleted =
+            Counter.builder("users.not.activated.deleted").description("Not activated users deleted").register(meterRegistry);
+        this.notActivatedUsersRemoval =
+            Timer.builder("users.not.activated.removal").description("Runs of the not activated users removal").register(meterRegistry);
+        this.cleanupChunkSize = applicationProperties.getUserCleanup().getChunkSize();
+        this.cleanupConcurrency = applicationProperties.getUserCleanup().getConcurrency();
+        this.expireWithTtlIndex = applicationProperties.getUserCleanup().isTtlIndex();
     }
 
     public Mono<User> activateRegistration(String key) {
@@ -51,6 +112,7 @@ public class UserService {
                 // activate given user for the registration key.
                 user.setActivated(true);
                 user.setActivationKey(null);
+                user.setExpireAt(null);
                 return saveUser(user);
             })
             .doOnNext(user -> log.debug("Activated user: {}", user));
@@ -59,9 +121,8 @@ public class UserService {
     public Mono<User> completePasswordReset(String newPassword, String key) {
         log.debug("Reset user password for reset key {}", key);
         return userRepository
-            .findOneByResetKey(key)
-            .filter(user -> user.getResetDate().isAfter(Instant.now().minus(1, ChronoUnit.DAYS)))
-            .publishOn(Schedulers.boundedElastic())
+            .findOneByResetKeyAndResetDateAfter(key, Instant.now().minus(RESET_KEY_VALIDITY))
+            .publishOn(passwordHashingScheduler)
             .map(user -> {
                 user.setPassword(passwordEncoder.encode(newPassword));
                 user.setResetKey(null);
@@ -85,45 +146,30 @@ public class UserService {
     }
 
     public Mono<User> registerUser(AdminUserDTO userDTO, String password) {
-        return userRepository
-            .findOneByLogin(userDTO.getLogin().toLowerCase())
-            .flatMap(existingUser -> {
-                if (!existingUser.isActivated()) {
-                    return userRepository.delete(existingUser);
-                } else {
-                    return Mono.error(new UsernameAlreadyUsedException());
+        return Mono
+            .fromCallable(() -> {
+                User newUser = new User();
+                String encryptedPassword = passwordEncoder.encode(password);
+                newUser.setLogin(userDTO.getLogin().toLowerCase());
+                // new user gets initially a generated password
+                newUser.setPassword(encryptedPassword);
+                newUser.setFirstName(userDTO.getFirstName());
+                newUser.setLastName(userDTO.getLastName());
+                if (userDTO.getEmail() != null) {
+                    newUser.setEmail(userDTO.getEmail().toLowerCase());
                 }
-            })
-            .then(userRepository.findOneByEmailIgnoreCase(userDTO.getEmail()))
-            .flatMap(existingUser -> {
-                if (!existingUser.isActivated()) {
-                    return userRepository.delete(existingUser);
-                } else {
-                    return Mono.error(new EmailAlreadyUsedException());
+                newUser.setImageUrl(userDTO.getImageUrl());
+                newUser.setLangKey(userDTO.getLangKey());
+                // new user is not active
+                newUser.setActivated(false);
+                // new user gets registration key
+                newUser.setActivationKey(RandomUtil.generateActivationKey());
+                if (expireWithTtlIndex) {
+                    newUser.setExpireAt(Instant.now().plus(NOT_ACTIVATED_USER_VALIDITY));
                 }
+                return newUser;
             })
-            .publishOn(Schedulers.boundedElastic())
-            .then(
-                Mono.fromCallable(() -> {
-                    User newUser = new User();
-                    String encryptedPassword = passwordEncoder.encode(password);
-                    newUser.setLogin(userDTO.getLogin().toLowerCase());
-                    // new user gets initially a generated password
-                    newUser.setPassword(encryptedPassword);
-                    newUser.setFirstName(userDTO.getFirstName());
-                    newUser.setLastName(userDTO.getLastName());
-                    if (userDTO.getEmail() != null) {
-                        newUser.setEmail(userDTO.getEmail().toLowerCase());
-                    }
-                    newUser.setImageUrl(userDTO.getImageUrl());
-                    newUser.setLangKey(userDTO.getLangKey());
-                    // new user is not active
-                    newUser.setActivated(false);
-                    // new user gets registration key
-                    newUser.setActivationKey(RandomUtil.generateActivationKey());
-                    return newUser;
-                })
-            )
+            .subscribeOn(passwordHashingScheduler)
             .flatMap(newUser -> {
                 Set<Authority> authorities = new HashSet<>();
                 return authorityRepository
@@ -131,12 +177,49 @@ public class UserService {
                     .map(authorities::add)
                     .thenReturn(newUser)
                     .doOnNext(user -> user.setAuthorities(authorities))
-                    .flatMap(this::saveUser)
+                    .flatMap(user ->
+                        saveUser(user)
+                            // The unique indexes rejected the login or email: replace their owners if they never activated
+                            .onErrorResume(
+                                DuplicateKeyException.class,
+                                e -> replaceNotActivatedOwners(userDTO).flatMap(removed -> removed ? saveUser(user) : Mono.error(e))
+                            )
+                    )
                     .doOnNext(user -> log.debug("Created Information for User: {}", user));
             });
     }
 
+    private Mono<Boolean> replaceNotActivatedOwners(AdminUserDTO userDTO) {
+        Mono<User> byLogin = userRepository.findOneByLogin(userDTO.getLogin().toLowerCase());
+        Mono<User> byEmail = userRepository.findOneByEmailIgnoreCase(userDTO.getEmail());
+        return Flux
+            .concat(byLogin, byEmail)
+            .distinct(User::getId)
+            .filter(existingUser -> !existingUser.isActivated())
+            .concatMap(existingUser ->
+                userRepository.delete(existingUser).doOnSuccess(deleted -> userCache.evict(existingUser)).thenReturn(existingUser)
+            )
+            .hasElements();
+    }
+
     public Mono<User> createUser(AdminUserDTO userDTO) {
+        Set<Authority> authorities = new HashSet<>();
+        return Flux
+            .fromIterable(userDTO.getAuthorities() != null ? userDTO.getAuthorities() : new HashSet<>())
+            .flatMap(authorityRepository::findById)
+            .doOnNext(authorities::add)
+            .then(Mono.fromCallable(() -> newManagedUser(userDTO, authorities)).subscribeOn(passwordHashingScheduler))
+            .flatMap(this::saveUser)
+            .doOnNext(user1 -> log.debug("Created Information for User: {}", user1));
+    }
+
+    /**
+     * Builds an activated user with a generated password and a reset key, which the creation email lets them use to
+     * choose their password.
+     * <p>
+     * The password is hashed in the calling thread, which should be one of the password hashing scheduler.
+     */
+    User newManagedUser(AdminUserDTO userDTO, Set<Authority> authorities) {
         User user = new User();
         user.setLogin(userDTO.getLogin().toLowerCase());
         user.setFirstName(userDTO.getFirstName());
@@ -150,22 +233,12 @@ public class UserService {
         } else {
             user.setLangKey(userDTO.getLangKey());
         }
-        return Flux
-            .fromIterable(userDTO.getAuthorities() != null ? userDTO.getAuthorities() : new HashSet<>())
-            .flatMap(authorityRepository::findById)
-            .doOnNext(authority -> user.getAuthorities().add(authority))
-            .then(Mono.just(user))
-            .publishOn(Schedulers.boundedElastic())
-            .map(newUser -> {
-                String encryptedPassword = passwordEncoder.encode(RandomUtil.generatePassword());
-                newUser.setPassword(encryptedPassword);
-                newUser.setResetKey(RandomUtil.generateResetKey());
-                newUser.setResetDate(Instant.now());
-                newUser.setActivated(true);
-                return newUser;
-            })
-            .flatMap(this::saveUser)
-            .doOnNext(user1 -> log.debug("Created Information for User: {}", user1));
+        user.setAuthorities(authorities);
+        user.setPassword(passwordEncoder.encode(RandomUtil.generatePassword()));
+        user.setResetKey(RandomUtil.generateResetKey());
+        user.setResetDate(Instant.now());
+        user.setActivated(true);
+        return user;
     }
 
     /**
@@ -178,6 +251,8 @@ public class UserService {
         return userRepository
             .findById(userDTO.getId())
             .flatMap(user -> {
+                // The login and email may change, and are used as cache keys
+                userCache.evict(user);
                 user.setLogin(userDTO.getLogin().toLowerCase());
                 user.setFirstName(userDTO.getFirstName());
                 user.setLastName(userDTO.getLastName());
@@ -186,6 +261,9 @@ public class UserService {
                 }
                 user.setImageUrl(userDTO.getImageUrl());
                 user.setActivated(userDTO.isActivated());
+                if (user.isActivated()) {
+                    user.setExpireAt(null);
+                }
                 user.setLangKey(userDTO.getLangKey());
                 Set<Authority> managedAuthorities = user.getAuthorities();
                 managedAuthorities.clear();
@@ -204,8 +282,9 @@ public class UserService {
         return userRepository
             .findOneByLogin(login)
             .flatMap(user -> userRepository.delete(user).thenReturn(user))
+            .doOnNext(userCache::evict)
             .doOnNext(user -> log.debug("Deleted User: {}", user))
-            .then();
+            .flatMap(user -> tokenRevocationService.revokeUser(user.getLogin()));
     }
 
     /**
@@ -223,6 +302,8 @@ public class UserService {
             .getCurrentUserLogin()
             .flatMap(userRepository::findOneByLogin)
             .flatMap(user -> {
+                // The email may change, and is used as a cache key
+                userCache.evict(user);
                 user.setFirstName(firstName);
                 user.setLastName(lastName);
                 if (email != null) {
@@ -246,14 +327,15 @@ public class UserService {
                 }
                 user.setLastModifiedBy(login);
                 return userRepository.save(user);
-            });
+            })
+            .doOnNext(userCache::evict);
     }
 
     public Mono<Void> changePassword(String currentClearTextPassword, String newPassword) {
         return SecurityUtils
             .getCurrentUserLogin()
             .flatMap(userRepository::findOneByLogin)
-            .publishOn(Schedulers.boundedElastic())
+            .publishOn(passwordHashingScheduler)
             .map(user -> {
                 String currentEncryptedPassword = user.getPassword();
                 if (!passwordEncoder.matches(currentClearTextPassword, currentEncryptedPassword)) {
@@ -269,40 +351,124 @@ public class UserService {
     }
 
     public Flux<AdminUserDTO> getAllManagedUsers(Pageable pageable) {
-        return userRepository.findAllByIdNotNull(pageable).map(AdminUserDTO::new);
+        return userRepository.findAdminListByIdNotNull(pageable).map(AdminUserDTO::new);
     }
 
     public Flux<UserDTO> getAllPublicUsers(Pageable pageable) {
-        return userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
+        return userRepository.findPublicListByActivatedIsTrue(pageable).map(UserDTO::new);
     }
 
-    public Mono<Long> countManagedUsers() {
-        return userRepository.count();
+    /**
+     * Gets a page of users with keyset pagination, which costs the same whatever the page.
+     *
+     * @param cursor the cursor returned with the previous page, or {@code null} for the first page.
+     * @param order the sort order, which the cursor must have been created for.
+     * @param size the page size.
+     * @return the page, with the cursor of the next page.
+     */
+    public Mono<CursorPage<AdminUserDTO>> getAllManagedUsers(UserCursor cursor, Sort.Order order, int size) {
+        return findAllAfter(cursor, order, false, size, UserRepository.ADMIN_LIST_FIELDS, AdminUserDTO::new);
+    }
+
+    public Mono<CursorPage<UserDTO>> getAllPublicUsers(UserCursor cursor, Sort.Order order, int size) {
+        return findAllAfter(cursor, order, true, size, UserRepository.PUBLIC_LIST_FIELDS, UserDTO::new);
+    }
+
+    private <T> Mono<CursorPage<T>> findAllAfter(
+        UserCursor cursor,
+        Sort.Order order,
+        boolean activatedOnly,
+        int size,
+        String fields,
+        Function<User, T> mapper
+    ) {
+        // One more user than asked for tells whether there is a next page
+        return userRepository
+            .findAllAfter(cursor, order, activatedOnly, size + 1, fields)
+            .collectList()
+            .map(users -> {
+                if (users.size() <= size) {
+                    return new CursorPage<>(users.stream().map(mapper).collect(Collectors.toList()), null);
+                }
+                List<User> page = users.subList(0, size);
+                UserCursor next = userRepository.cursorOf(page.get(size - 1), order);
+                return new CursorPage<>(page.stream().map(mapper).collect(Collectors.toList()), next);
+            });
+    }
+
+    /**
+     * Streams all the users, sorted by id, for exports.
+     *
+     * @param afterId the id of the last user already exported, or {@code null} to start from the first user.
+     * @param batchSize the number of users read from the database at a time.
+     * @return the users, read as they are requested.
+     */
+    public Flux<AdminUserDTO> exportManagedUsers(String afterId, int batchSize) {
+        return userRepository.streamAllAfter(afterId, batchSize, UserRepository.ADMIN_LIST_FIELDS).map(AdminUserDTO::new);
+    }
+
+    /**
+     * Counts the users for the pagination of the listings.
+     *
+     * @param exact whether to count the users, rather than reading the cached estimate of {@link UserCount}.
+     * @return the number of users.
+     */
+    public Mono<Long> countManagedUsers(boolean exact) {
+        return userCount.count(exact);
     }
 
     public Mono<User> getUserWithAuthoritiesByLogin(String login) {
-        return userRepository.findOneByLogin(login);
+        return userCache.findOneByLogin(login);
     }
 
     public Mono<User> getUserWithAuthorities() {
-        return SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findOneByLogin);
+        return SecurityUtils.getCurrentUserLogin().flatMap(userCache::findOneByLogin);
     }
 
     /**
      * Not activated users should be automatically deleted after 3 days.
      * <p>
-     * This is scheduled to get fired everyday, at 01:00 (am).
+     * This is scheduled to get fired everyday, at 01:00 (am), unless {@code application.user-cleanup.cron} says
+     * otherwise: it can be turned off with the TTL index doing the job, see {@code application.user-cleanup.ttl-index}.
      */
-    @Scheduled(cron = "0 0 1 * * ?")
+    @Scheduled(cron = "${application.user-cleanup.cron:0 0 1 * * ?}")
     public void removeNotActivatedUsers() {
-        removeNotActivatedUsersReactively().blockLast();
+        removeNotActivatedUsersReactively()
+            .subscribe(
+                deleted -> log.info("Deleted {} not activated users", deleted),
+                e -> log.error("Could not delete the not activated users", e)
+            );
     }
 
-    public Flux<User> removeNotActivatedUsersReactively() {
+    /**
+     * Deletes the not activated users created more than 3 days ago, {@code application.user-cleanup.chunk-size} at a
+     * time with one {@code deleteMany} each, running at most {@code application.user-cleanup.concurrency} of them at
+     * once.
+     *
+     * @return the number of deleted users.
+     */
+    public Mono<Long> removeNotActivatedUsersReactively() {
+        return Mono.defer(() -> {
+            Instant createdBefore = Instant.now().minus(NOT_ACTIVATED_USER_VALIDITY);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return userRepository
+                .findNotActivatedListByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(createdBefore)
+                .buffer(cleanupChunkSize)
+                .flatMap(users -> deleteNotActivatedChunk(users, createdBefore), cleanupConcurrency)
+                .reduce(0L, Long::sum)
+                .doFinally(signal -> sample.stop(notActivatedUsersRemoval));
+        });
+    }
+
+    private Mono<Long> deleteNotActivatedChunk(List<User> users, Instant createdBefore) {
+        List<String> ids = users.stream().map(User::getId).collect(Collectors.toList());
         return userRepository
-            .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant.now().minus(3, ChronoUnit.DAYS))
-            .flatMap(user -> userRepository.delete(user).thenReturn(user))
-            .doOnNext(user -> log.debug("Deleted User: {}", user));
+            .deleteNotActivatedByIdIn(ids, createdBefore)
+            .doOnNext(deleted -> {
+                users.forEach(userCache::evict);
+                notActivatedUsersDeleted.increment(deleted);
+                log.debug("Deleted {} of {} not activated users", deleted, users.size());
+            });
     }
 
     /**
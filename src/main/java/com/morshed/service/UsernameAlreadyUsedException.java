@@ -1,10 +0,0 @@
-package com.morshed.service;
-
-public class UsernameAlreadyUsedException extends RuntimeException {
-
-    private static final long serialVersionUID = 1L;
-
-    public UsernameAlreadyUsedException() {
-        super("Login name already used!");
-    }
-}
@@ -0,0 +1,30 @@
+package com.morshed.service.dto;
+
+import com.morshed.repository.UserCursor;
+import java.util.List;
+
+/**
+ * A DTO representing a page of a keyset-paginated list - its content, and the cursor of the next page if there is one.
+ */
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final UserCursor next;
+
+    public CursorPage(List<T> content, UserCursor next) {
+        this.content = content;
+        this.next = next;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public UserCursor getNext() {
+        return next;
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
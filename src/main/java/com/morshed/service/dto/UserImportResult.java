@@ -0,0 +1,73 @@
+package com.morshed.service.dto;
+
+/**
+ * A DTO representing the outcome of importing one row of a bulk user import.
+ */
+public class UserImportResult {
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        CONFLICT,
+        UNAVAILABLE,
+    }
+
+    private long row;
+    private String login;
+    private Status status;
+    private String message;
+
+    public UserImportResult() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public UserImportResult(long row, String login, Status status, String message) {
+        this.row = row;
+        this.login = login;
+        this.status = status;
+        this.message = message;
+    }
+
+    public long getRow() {
+        return row;
+    }
+
+    public void setRow(long row) {
+        this.row = row;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public void setLogin(String login) {
+        this.login = login;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UserImportResult{" +
+            "row=" + row +
+            ", login='" + login + '\'' +
+            ", status=" + status +
+            ", message='" + message + '\'' +
+            "}";
+    }
+}
@@ -10,7 +10,6 @@ import com.morshed.web.rest.errors.*;
 import com.morshed.web.rest.vm.KeyAndPasswordVM;
 import com.morshed.web.rest.vm.ManagedUserVM;
 import java.security.Principal;
-import java.util.Objects;
 import javax.validation.Valid;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -62,7 +61,7 @@ public class AccountResource {
         if (isPasswordLengthInvalid(managedUserVM.getPassword())) {
             throw new InvalidPasswordException();
         }
-        return userService.registerUser(managedUserVM, managedUserVM.getPassword()).doOnSuccess(mailService::sendActivationEmail).then();
+        return userService.registerUser(managedUserVM, managedUserVM.getPassword()).flatMap(mailService::sendActivationEmail);
     }
 
     /**
@@ -117,18 +116,7 @@ public class AccountResource {
         return SecurityUtils
             .getCurrentUserLogin()
             .switchIfEmpty(Mono.error(new AccountResourceException("Current user login not found")))
-            .flatMap(userLogin ->
-                userRepository
-                    .findOneByEmailIgnoreCase(userDTO.getEmail())
-                    .filter(existingUser -> !existingUser.getLogin().equalsIgnoreCase(userLogin))
-                    .hasElement()
-                    .flatMap(emailExists -> {
-                        if (emailExists) {
-                            throw new EmailAlreadyUsedException();
-                        }
-                        return userRepository.findOneByLogin(userLogin);
-                    })
-            )
+            .flatMap(userRepository::findOneByLogin)
             .switchIfEmpty(Mono.error(new AccountResourceException("User could not be found")))
             .flatMap(user ->
                 userService.updateUser(
@@ -164,16 +152,12 @@ public class AccountResource {
     public Mono<Void> requestPasswordReset(@RequestBody String mail) {
         return userService
             .requestPasswordReset(mail)
-            .doOnSuccess(user -> {
-                if (Objects.nonNull(user)) {
-                    mailService.sendPasswordResetMail(user);
-                } else {
-                    // Pretend the request has been successful to prevent checking which emails really exist
-                    // but log that an invalid attempt has been made
-                    log.warn("Password reset requested for non existing mail");
-                }
-            })
-            .then();
+            .switchIfEmpty(
+                // Pretend the request has been successful to prevent checking which emails really exist
+                // but log that an invalid attempt has been made
+                Mono.fromRunnable(() -> log.warn("Password reset requested for non existing mail"))
+            )
+            .flatMap(mailService::sendPasswordResetMail);
     }
 
     /**
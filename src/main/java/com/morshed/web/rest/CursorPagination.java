@@ -0,0 +1,71 @@
+package com.morshed.web.rest;
+
+import com.morshed.repository.UserCursor;
+import com.morshed.service.dto.CursorPage;
+import com.morshed.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for the keyset pagination of the user listings, requested with a {@code cursor} parameter.
+ * <p>
+ * An empty cursor asks for the first page. Each page comes with the cursor of the next one in a {@code X-Next-Cursor}
+ * header and in a {@code next} link, and the last page without either.
+ */
+final class CursorPagination {
+
+    static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+
+    private static final String ENTITY_NAME = "userManagement";
+
+    private CursorPagination() {}
+
+    /**
+     * Returns the single sort order keyset pagination supports, the id if none was asked for.
+     *
+     * @throws BadRequestAlertException if several orders were asked for.
+     */
+    static Sort.Order getOrder(Pageable pageable) {
+        List<Sort.Order> orders = pageable.getSort().stream().collect(Collectors.toList());
+        if (orders.size() > 1) {
+            throw new BadRequestAlertException("A cursor can only be used with one sort property", ENTITY_NAME, "invalidcursor");
+        }
+        return orders.isEmpty() ? Sort.Order.asc("id") : orders.get(0);
+    }
+
+    /**
+     * Decodes a cursor, {@code null} for an empty one.
+     *
+     * @throws BadRequestAlertException if the cursor is malformed, or was created for another sort order.
+     */
+    static UserCursor decode(String cursor, Sort.Order order) {
+        if (cursor.isEmpty()) {
+            return null;
+        }
+        UserCursor userCursor;
+        try {
+            userCursor = UserCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "invalidcursor");
+        }
+        if (!userCursor.isFor(order)) {
+            throw new BadRequestAlertException("The cursor was created for another sort order", ENTITY_NAME, "invalidcursor");
+        }
+        return userCursor;
+    }
+
+    static HttpHeaders generateCursorHttpHeaders(UriComponentsBuilder uriBuilder, CursorPage<?> page) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.hasNext()) {
+            String next = page.getNext().encode();
+            headers.add(HEADER_NEXT_CURSOR, next);
+            String link = uriBuilder.replaceQueryParam("page").replaceQueryParam("cursor", next).toUriString();
+            headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+}
@@ -2,15 +2,16 @@ package com.morshed.web.rest;
 
 import com.morshed.service.UserService;
 import com.morshed.service.dto.UserDTO;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.server.reactive.ServerHttpRequest;
@@ -42,20 +43,39 @@ public class PublicUserResource {
      *
      * @param request a {@link ServerHttpRequest} request.
      * @param pageable the pagination information.
+     * @param cursor the cursor of the page, empty for the first one, to use keyset pagination instead of page numbers.
+     * @param exact whether to count the users for the pagination headers, rather than using a cached estimate.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
      */
     @GetMapping("/users")
-    public Mono<ResponseEntity<Flux<UserDTO>>> getAllPublicUsers(ServerHttpRequest request, Pageable pageable) {
+    public Mono<ResponseEntity<Flux<UserDTO>>> getAllPublicUsers(
+        ServerHttpRequest request,
+        Pageable pageable,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "false") boolean exact
+    ) {
         log.debug("REST request to get all public User names");
         if (!onlyContainsAllowedProperties(pageable)) {
             return Mono.just(ResponseEntity.badRequest().build());
         }
+        if (cursor != null) {
+            Sort.Order order = CursorPagination.getOrder(pageable);
+            return userService
+                .getAllPublicUsers(CursorPagination.decode(cursor, order), order, pageable.getPageSize())
+                .map(page -> {
+                    HttpHeaders headers = CursorPagination.generateCursorHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), page);
+                    return ResponseEntity.ok().headers(headers).body(Flux.fromIterable(page.getContent()));
+                });
+        }
 
-        return userService
-            .countManagedUsers()
-            .map(total -> new PageImpl<>(new ArrayList<>(), pageable, total))
-            .map(page -> PaginationUtil.generatePaginationHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), page))
-            .map(headers -> ResponseEntity.ok().headers(headers).body(userService.getAllPublicUsers(pageable)));
+        // The count and the page are queried concurrently
+        return Mono
+            .zip(userService.countManagedUsers(exact), userService.getAllPublicUsers(pageable).collectList())
+            .map(countAndUsers -> {
+                Page<UserDTO> page = new PageImpl<>(countAndUsers.getT2(), pageable, countAndUsers.getT1());
+                HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), page);
+                return ResponseEntity.ok().headers(headers).body(Flux.fromIterable(page.getContent()));
+            });
     }
 
     private boolean onlyContainsAllowedProperties(Pageable pageable) {
@@ -0,0 +1,108 @@
+package com.morshed.web.rest;
+
+import com.morshed.service.dto.AdminUserDTO;
+import com.morshed.web.rest.errors.BadRequestAlertException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+import reactor.core.publisher.Flux;
+
+/**
+ * Utility class reading users from CSV lines, for the bulk user import.
+ * <p>
+ * The first line names the columns, among {@link #COLUMNS}, in any order. Values may be quoted, with {@code ""} for a
+ * quote, but can not span several lines. Authorities are separated by spaces. Blank lines are skipped.
+ */
+final class UserCsvReader {
+
+    static final Map<String, BiConsumer<AdminUserDTO, String>> COLUMNS = Map.of(
+        "login",
+        AdminUserDTO::setLogin,
+        "firstName",
+        AdminUserDTO::setFirstName,
+        "lastName",
+        AdminUserDTO::setLastName,
+        "email",
+        AdminUserDTO::setEmail,
+        "imageUrl",
+        AdminUserDTO::setImageUrl,
+        "langKey",
+        AdminUserDTO::setLangKey,
+        "authorities",
+        (userDTO, authorities) -> userDTO.setAuthorities(new HashSet<>(Arrays.asList(StringUtils.split(authorities))))
+    );
+
+    private static final String ENTITY_NAME = "userManagement";
+
+    private UserCsvReader() {}
+
+    /**
+     * Reads users from CSV lines.
+     *
+     * @throws BadRequestAlertException through the returned {@link Flux}, if the first line names an unknown column.
+     */
+    static Flux<AdminUserDTO> read(Flux<String> lines) {
+        return lines
+            .filter(StringUtils::isNotBlank)
+            .switchOnFirst((first, all) -> {
+                if (!first.hasValue()) {
+                    return Flux.empty();
+                }
+                List<BiConsumer<AdminUserDTO, String>> setters = header(first.get());
+                return all.skip(1).map(line -> toUser(setters, parse(line)));
+            });
+    }
+
+    private static List<BiConsumer<AdminUserDTO, String>> header(String line) {
+        List<String> columns = parse(line);
+        List<String> unknownColumns = columns.stream().filter(column -> !COLUMNS.containsKey(column)).collect(Collectors.toList());
+        if (!unknownColumns.isEmpty()) {
+            throw new BadRequestAlertException("Unknown CSV columns: " + unknownColumns, ENTITY_NAME, "csvcolumns");
+        }
+        return columns.stream().map(COLUMNS::get).collect(Collectors.toList());
+    }
+
+    private static AdminUserDTO toUser(List<BiConsumer<AdminUserDTO, String>> setters, List<String> values) {
+        AdminUserDTO userDTO = new AdminUserDTO();
+        // Missing values are left unset, and extra values ignored, for validation to report
+        for (int i = 0; i < Math.min(setters.size(), values.size()); i++) {
+            if (!values.get(i).isEmpty()) {
+                setters.get(i).accept(userDTO, values.get(i));
+            }
+        }
+        return userDTO;
+    }
+
+    static List<String> parse(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString().trim());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString().trim());
+        return values;
+    }
+}
@@ -1,15 +1,26 @@
 package com.morshed.web.rest;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.morshed.security.LoginAttemptLimiter;
 import com.morshed.security.jwt.JWTFilter;
 import com.morshed.security.jwt.TokenProvider;
+import com.morshed.service.RefreshTokenService;
+import com.morshed.service.TokenRevocationService;
 import com.morshed.web.rest.vm.LoginVM;
+import com.morshed.web.rest.vm.RefreshTokenVM;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Optional;
 import javax.validation.Valid;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
@@ -25,24 +36,94 @@ public class UserJWTController {
 
     private final ReactiveAuthenticationManager authenticationManager;
 
-    public UserJWTController(TokenProvider tokenProvider, ReactiveAuthenticationManager authenticationManager) {
+    private final LoginAttemptLimiter loginAttemptLimiter;
+
+    private final RefreshTokenService refreshTokenService;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    public UserJWTController(
+        TokenProvider tokenProvider,
+        ReactiveAuthenticationManager authenticationManager,
+        LoginAttemptLimiter loginAttemptLimiter,
+        RefreshTokenService refreshTokenService,
+        TokenRevocationService tokenRevocationService
+    ) {
         this.tokenProvider = tokenProvider;
         this.authenticationManager = authenticationManager;
+        this.loginAttemptLimiter = loginAttemptLimiter;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @PostMapping("/authenticate")
-    public Mono<ResponseEntity<JWTToken>> authorize(@Valid @RequestBody Mono<LoginVM> loginVM) {
+    public Mono<ResponseEntity<JWTToken>> authorize(@Valid @RequestBody Mono<LoginVM> loginVM, ServerHttpRequest request) {
+        String clientIp = Optional
+            .ofNullable(request.getRemoteAddress())
+            .map(InetSocketAddress::getAddress)
+            .map(InetAddress::getHostAddress)
+            .orElse(null);
         return loginVM
+            .doOnNext(login -> loginAttemptLimiter.checkAttempt(login.getUsername(), clientIp))
             .flatMap(login ->
                 authenticationManager
                     .authenticate(new UsernamePasswordAuthenticationToken(login.getUsername(), login.getPassword()))
-                    .flatMap(auth -> Mono.fromCallable(() -> tokenProvider.createToken(auth, login.isRememberMe())))
+                    .doOnNext(auth -> loginAttemptLimiter.loginSucceeded(login.getUsername()))
+                    .flatMap(auth -> createTokens(auth, login.isRememberMe()))
             )
-            .map(jwt -> {
-                HttpHeaders httpHeaders = new HttpHeaders();
-                httpHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
-                return new ResponseEntity<>(new JWTToken(jwt), httpHeaders, HttpStatus.OK);
-            });
+            .map(this::toResponse);
+    }
+
+    /**
+     * {@code POST  /authenticate/refresh} : exchange a refresh token for a new access token and a new refresh token.
+     * <p>
+     * The password is not checked again, and the presented refresh token can not be used anymore.
+     *
+     * @param refreshTokenVM the refresh token returned by the previous authentication or refresh.
+     * @return the new tokens, or status {@code 401 (Unauthorized)} if the refresh token is invalid, expired or already used.
+     */
+    @PostMapping("/authenticate/refresh")
+    public Mono<ResponseEntity<JWTToken>> refresh(@Valid @RequestBody Mono<RefreshTokenVM> refreshTokenVM) {
+        return refreshTokenVM
+            .flatMap(vm -> refreshTokenService.rotate(vm.getRefreshToken()))
+            .flatMap(rotation ->
+                Mono
+                    .fromCallable(() -> tokenProvider.createToken(rotation.getAuthentication(), rotation.isRememberMe()))
+                    .map(jwt -> new JWTToken(jwt, rotation.getRefreshToken()))
+            )
+            .map(this::toResponse);
+    }
+
+    /**
+     * {@code POST  /logout} : revoke the access token of the current request, and the given refresh token if any.
+     *
+     * @param refreshTokenVM the refresh token to delete, optional.
+     * @return status {@code 204 (No Content)}.
+     */
+    @PostMapping("/logout")
+    public Mono<ResponseEntity<Void>> logout(@Valid @RequestBody(required = false) Mono<RefreshTokenVM> refreshTokenVM) {
+        Mono<Void> revokeAccessToken = ReactiveSecurityContextHolder
+            .getContext()
+            .map(SecurityContext::getAuthentication)
+            .map(Authentication::getCredentials)
+            .ofType(String.class)
+            .map(tokenProvider::resolveToken)
+            .filter(result -> result.getTokenId() != null && result.getExpiration().isPresent())
+            .flatMap(result -> tokenRevocationService.revokeToken(result.getTokenId(), result.getExpiration().get()));
+        Mono<Void> deleteRefreshToken = refreshTokenVM.flatMap(vm -> refreshTokenService.deleteRefreshToken(vm.getRefreshToken()));
+        return revokeAccessToken.then(deleteRefreshToken).thenReturn(ResponseEntity.noContent().build());
+    }
+
+    private Mono<JWTToken> createTokens(Authentication authentication, boolean rememberMe) {
+        return Mono
+            .fromCallable(() -> tokenProvider.createToken(authentication, rememberMe))
+            .zipWith(refreshTokenService.createRefreshToken(authentication.getName(), rememberMe), JWTToken::new);
+    }
+
+    private ResponseEntity<JWTToken> toResponse(JWTToken token) {
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + token.getIdToken());
+        return new ResponseEntity<>(token, httpHeaders, HttpStatus.OK);
     }
 
     /**
@@ -52,8 +133,11 @@ public class UserJWTController {
 
         private String idToken;
 
-        JWTToken(String idToken) {
+        private String refreshToken;
+
+        JWTToken(String idToken, String refreshToken) {
             this.idToken = idToken;
+            this.refreshToken = refreshToken;
         }
 
         @JsonProperty("id_token")
@@ -64,5 +148,14 @@ public class UserJWTController {
         void setIdToken(String idToken) {
             this.idToken = idToken;
         }
+
+        @JsonProperty("refresh_token")
+        String getRefreshToken() {
+            return refreshToken;
+        }
+
+        void setRefreshToken(String refreshToken) {
+            this.refreshToken = refreshToken;
+        }
     }
 }
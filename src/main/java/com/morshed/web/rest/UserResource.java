@@ -1,18 +1,19 @@
 package com.morshed.web.rest;
 
+import com.morshed.config.ApplicationProperties;
 import com.morshed.config.Constants;
 import com.morshed.domain.User;
-import com.morshed.repository.UserRepository;
 import com.morshed.security.AuthoritiesConstants;
 import com.morshed.service.MailService;
+import com.morshed.service.UserImportService;
 import com.morshed.service.UserService;
 import com.morshed.service.dto.AdminUserDTO;
+import com.morshed.service.dto.UserImportResult;
 import com.morshed.web.rest.errors.BadRequestAlertException;
 import com.morshed.web.rest.errors.EmailAlreadyUsedException;
 import com.morshed.web.rest.errors.LoginAlreadyUsedException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -21,10 +22,13 @@ import javax.validation.constraints.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -80,6 +84,8 @@ public class UserResource {
         )
     );
 
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private final Logger log = LoggerFactory.getLogger(UserResource.class);
 
     @Value("${jhipster.clientApp.name}")
@@ -87,14 +93,22 @@ public class UserResource {
 
     private final UserService userService;
 
-    private final UserRepository userRepository;
-
     private final MailService mailService;
 
-    public UserResource(UserService userService, UserRepository userRepository, MailService mailService) {
+    private final UserImportService userImportService;
+
+    private final ApplicationProperties applicationProperties;
+
+    public UserResource(
+        UserService userService,
+        MailService mailService,
+        UserImportService userImportService,
+        ApplicationProperties applicationProperties
+    ) {
         this.userService = userService;
-        this.userRepository = userRepository;
         this.mailService = mailService;
+        this.userImportService = userImportService;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -115,25 +129,10 @@ public class UserResource {
 
         if (userDTO.getId() != null) {
             throw new BadRequestAlertException("A new user cannot already have an ID", "userManagement", "idexists");
-            // Lowercase the user login before comparing with database
         }
-        return userRepository
-            .findOneByLogin(userDTO.getLogin().toLowerCase())
-            .hasElement()
-            .flatMap(loginExists -> {
-                if (Boolean.TRUE.equals(loginExists)) {
-                    return Mono.error(new LoginAlreadyUsedException());
-                }
-                return userRepository.findOneByEmailIgnoreCase(userDTO.getEmail());
-            })
-            .hasElement()
-            .flatMap(emailExists -> {
-                if (Boolean.TRUE.equals(emailExists)) {
-                    return Mono.error(new EmailAlreadyUsedException());
-                }
-                return userService.createUser(userDTO);
-            })
-            .doOnSuccess(mailService::sendCreationEmail)
+        return userService
+            .createUser(userDTO)
+            .flatMap(user -> mailService.sendCreationEmail(user).thenReturn(user))
             .map(user -> {
                 try {
                     return ResponseEntity
@@ -158,24 +157,8 @@ public class UserResource {
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
     public Mono<ResponseEntity<AdminUserDTO>> updateUser(@Valid @RequestBody AdminUserDTO userDTO) {
         log.debug("REST request to update User : {}", userDTO);
-        return userRepository
-            .findOneByEmailIgnoreCase(userDTO.getEmail())
-            .filter(user -> !user.getId().equals(userDTO.getId()))
-            .hasElement()
-            .flatMap(emailExists -> {
-                if (Boolean.TRUE.equals(emailExists)) {
-                    return Mono.error(new EmailAlreadyUsedException());
-                }
-                return userRepository.findOneByLogin(userDTO.getLogin().toLowerCase());
-            })
-            .filter(user -> !user.getId().equals(userDTO.getId()))
-            .hasElement()
-            .flatMap(loginExists -> {
-                if (Boolean.TRUE.equals(loginExists)) {
-                    return Mono.error(new LoginAlreadyUsedException());
-                }
-                return userService.updateUser(userDTO);
-            })
+        return userService
+            .updateUser(userDTO)
             .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
             .map(user ->
                 ResponseEntity
@@ -190,27 +173,101 @@ public class UserResource {
      *
      * @param request a {@link ServerHttpRequest} request.
      * @param pageable the pagination information.
+     * @param cursor the cursor of the page, empty for the first one, to use keyset pagination instead of page numbers.
+     * @param exact whether to count the users for the pagination headers, rather than using a cached estimate.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
      */
     @GetMapping("/users")
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
-    public Mono<ResponseEntity<Flux<AdminUserDTO>>> getAllUsers(ServerHttpRequest request, Pageable pageable) {
+    public Mono<ResponseEntity<Flux<AdminUserDTO>>> getAllUsers(
+        ServerHttpRequest request,
+        Pageable pageable,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "false") boolean exact
+    ) {
         log.debug("REST request to get all User for an admin");
         if (!onlyContainsAllowedProperties(pageable)) {
             return Mono.just(ResponseEntity.badRequest().build());
         }
+        if (cursor != null) {
+            Sort.Order order = CursorPagination.getOrder(pageable);
+            return userService
+                .getAllManagedUsers(CursorPagination.decode(cursor, order), order, pageable.getPageSize())
+                .map(page -> {
+                    HttpHeaders headers = CursorPagination.generateCursorHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), page);
+                    return ResponseEntity.ok().headers(headers).body(Flux.fromIterable(page.getContent()));
+                });
+        }
 
-        return userService
-            .countManagedUsers()
-            .map(total -> new PageImpl<>(new ArrayList<>(), pageable, total))
-            .map(page -> PaginationUtil.generatePaginationHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), page))
-            .map(headers -> ResponseEntity.ok().headers(headers).body(userService.getAllManagedUsers(pageable)));
+        // The count and the page are queried concurrently
+        return Mono
+            .zip(userService.countManagedUsers(exact), userService.getAllManagedUsers(pageable).collectList())
+            .map(countAndUsers -> {
+                Page<AdminUserDTO> page = new PageImpl<>(countAndUsers.getT2(), pageable, countAndUsers.getT1());
+                HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), page);
+                return ResponseEntity.ok().headers(headers).body(Flux.fromIterable(page.getContent()));
+            });
     }
 
     private boolean onlyContainsAllowedProperties(Pageable pageable) {
         return pageable.getSort().stream().map(Sort.Order::getProperty).allMatch(ALLOWED_ORDERED_PROPERTIES::contains);
     }
 
+    /**
+     * {@code GET /admin/export/users} : stream all users with all the details, sorted by id - calling this are only allowed
+     * for the administrators.
+     * <p>
+     * The users are read from the database as the client consumes them, so the whole user base can be exported in one
+     * request. An interrupted export is resumed by passing the id of the last user received.
+     *
+     * @param after the id of the last user already received, if any.
+     * @return the users, as newline delimited JSON or server-sent events.
+     */
+    @GetMapping(value = "/export/users", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Flux<AdminUserDTO> exportUsers(@RequestParam(required = false) String after) {
+        log.debug("REST request to export all Users after : {}", after);
+        return userService.exportManagedUsers(after, applicationProperties.getUserExport().getBatchSize());
+    }
+
+    /**
+     * {@code POST /admin/import/users} : Creates users in bulk, from newline delimited JSON.
+     * <p>
+     * The users are created as with {@code POST /admin/users}, and the creation emails of each chunk queued before its
+     * results are returned.
+     *
+     * @param users the users to create.
+     * @return the outcome of each row, numbered from 1, as newline delimited JSON.
+     */
+    @PostMapping(
+        value = "/import/users",
+        consumes = MediaType.APPLICATION_NDJSON_VALUE,
+        produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE }
+    )
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Flux<UserImportResult> importUsers(@RequestBody Flux<AdminUserDTO> users) {
+        log.debug("REST request to import Users");
+        return userImportService.importUsers(users);
+    }
+
+    /**
+     * {@code POST /admin/import/users} : Creates users in bulk, from CSV.
+     *
+     * @param lines the CSV lines, the first one naming the columns.
+     * @return the outcome of each row after the header, numbered from 1, as newline delimited JSON.
+     * @see UserCsvReader
+     */
+    @PostMapping(
+        value = "/import/users",
+        consumes = TEXT_CSV_VALUE,
+        produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE }
+    )
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Flux<UserImportResult> importUsersFromCsv(@RequestBody Flux<String> lines) {
+        log.debug("REST request to import Users from CSV");
+        return userImportService.importUsers(UserCsvReader.read(lines));
+    }
+
     /**
      * {@code GET /admin/users/:login} : get the "login" user.
      *
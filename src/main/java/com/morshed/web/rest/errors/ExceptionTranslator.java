@@ -1,10 +1,16 @@
 package com.morshed.web.rest.errors;
 
+import com.morshed.config.ApplicationProperties;
+import com.morshed.domain.User;
+import com.morshed.security.PasswordHashingRejectedException;
+import com.morshed.security.TooManyLoginAttemptsException;
 import java.net.URI;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -13,6 +19,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageConversionException;
 import org.springframework.validation.BindingResult;
@@ -49,8 +57,11 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
 
     private final Environment env;
 
-    public ExceptionTranslator(Environment env) {
+    private final ApplicationProperties applicationProperties;
+
+    public ExceptionTranslator(Environment env, ApplicationProperties applicationProperties) {
         this.env = env;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -113,25 +124,19 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
         return create(ex, problem, request);
     }
 
+    /**
+     * A unique index rejected a write. The indexes of the user collection mean the login or email is already taken.
+     */
     @ExceptionHandler
-    public Mono<ResponseEntity<Problem>> handleEmailAlreadyUsedException(
-        com.morshed.service.EmailAlreadyUsedException ex,
-        ServerWebExchange request
-    ) {
-        EmailAlreadyUsedException problem = new EmailAlreadyUsedException();
-        return create(
-            problem,
-            request,
-            HeaderUtil.createFailureAlert(applicationName, false, problem.getEntityName(), problem.getErrorKey(), problem.getMessage())
-        );
-    }
-
-    @ExceptionHandler
-    public Mono<ResponseEntity<Problem>> handleUsernameAlreadyUsedException(
-        com.morshed.service.UsernameAlreadyUsedException ex,
-        ServerWebExchange request
-    ) {
-        LoginAlreadyUsedException problem = new LoginAlreadyUsedException();
+    public Mono<ResponseEntity<Problem>> handleDuplicateKey(DuplicateKeyException ex, ServerWebExchange request) {
+        BadRequestAlertException problem;
+        if (User.isDuplicateKeyIn(ex.getMessage(), User.LOGIN_INDEX)) {
+            problem = new LoginAlreadyUsedException();
+        } else if (User.isDuplicateKeyIn(ex.getMessage(), User.EMAIL_INDEX)) {
+            problem = new EmailAlreadyUsedException();
+        } else {
+            return create(Status.CONFLICT, ex, request);
+        }
         return create(
             problem,
             request,
@@ -162,6 +167,45 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
         return create(ex, problem, request);
     }
 
+    /**
+     * A bounded executor is saturated. When it is the password hashing scheduler, ask the client to come back after
+     * {@code application.security.password-hashing.retry-after}.
+     */
+    @ExceptionHandler
+    public Mono<ResponseEntity<Problem>> handleRejectedExecution(RejectedExecutionException ex, ServerWebExchange request) {
+        if (!isPasswordHashingRejection(ex)) {
+            return create(Status.SERVICE_UNAVAILABLE, ex, request);
+        }
+        Duration retryAfter = applicationProperties.getSecurity().getPasswordHashing().getRetryAfter();
+        return create(Status.SERVICE_UNAVAILABLE, ex, request, retryAfterHeaders(retryAfter));
+    }
+
+    private static boolean isPasswordHashingRejection(Throwable ex) {
+        // Reactor wraps the exception of the rejecting executor
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PasswordHashingRejectedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The login rate limiter rejected an attempt: tell the client when the next one will be allowed.
+     */
+    @ExceptionHandler
+    public Mono<ResponseEntity<Problem>> handleTooManyLoginAttempts(TooManyLoginAttemptsException ex, ServerWebExchange request) {
+        return create(Status.TOO_MANY_REQUESTS, ex, request, retryAfterHeaders(ex.getRetryAfter()));
+    }
+
+    private HttpHeaders retryAfterHeaders(Duration retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        // Round up, so that a client retrying right on time is not rejected again
+        long seconds = retryAfter.getNano() > 0 ? retryAfter.getSeconds() + 1 : retryAfter.getSeconds();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        return headers;
+    }
+
     @Override
     public ProblemBuilder prepare(final Throwable throwable, final StatusType status, final URI type) {
         Collection<String> activeProfiles = Arrays.asList(env.getActiveProfiles());
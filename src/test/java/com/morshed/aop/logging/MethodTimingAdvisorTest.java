@@ -0,0 +1,178 @@
+package com.morshed.aop.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.morshed.config.ApplicationProperties;
+import com.morshed.config.AsyncConfiguration;
+import com.morshed.domain.User;
+import com.morshed.repository.UserCache;
+import com.morshed.service.UserService;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link MethodTimingAdvisor}.
+ */
+class MethodTimingAdvisorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    private UserCache userCache;
+
+    private UserService userService;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", meterRegistry);
+        meterRegistryProvider = beanFactory.getBeanProvider(MeterRegistry.class);
+        userCache = mock(UserCache.class);
+        userService = new UserService(null, userCache, null, null, null, null, null, new ApplicationProperties(), meterRegistry);
+    }
+
+    @Test
+    void testNothingIsTimedWhenDisabled() {
+        MethodTimingAdvisor advisor = new MethodTimingAdvisor(false, meterRegistryProvider);
+
+        assertThat(AopUtils.canApply(advisor, UserService.class)).isFalse();
+    }
+
+    @Test
+    void testOnlyApplicationBeansAreTimed() {
+        MethodTimingAdvisor advisor = new MethodTimingAdvisor(true, meterRegistryProvider);
+
+        assertThat(AopUtils.canApply(advisor, UserService.class)).isTrue();
+        assertThat(AopUtils.canApply(advisor, AsyncConfiguration.class)).isFalse();
+    }
+
+    @Test
+    void testClassesWithDisabledLoggerAreNotTimed() {
+        Logger logger = (Logger) LoggerFactory.getLogger(UserService.class);
+        Level level = logger.getLevel();
+        logger.setLevel(Level.WARN);
+        try {
+            assertThat(AopUtils.canApply(new MethodTimingAdvisor(true, meterRegistryProvider), UserService.class)).isFalse();
+        } finally {
+            logger.setLevel(level);
+        }
+    }
+
+    @Test
+    void testCallsAreTimedUntilTheirPublisherCompletes() {
+        User user = new User();
+        when(userCache.findOneByLogin("user")).thenReturn(Mono.delay(Duration.ofMillis(100)).thenReturn(user));
+        UserService proxy = proxy(new MethodTimingAdvisor(true, meterRegistryProvider));
+
+        Mono<User> result = proxy.getUserWithAuthoritiesByLogin("user");
+        Timer timer = meterRegistry
+            .get(MethodTimingAdvisor.TIMER_NAME)
+            .tag("class", "UserService")
+            .tag("method", "getUserWithAuthoritiesByLogin")
+            .tag("outcome", "SUCCESS")
+            .tag("exception", "none")
+            .timer();
+        // Not subscribed to yet
+        assertThat(timer.count()).isZero();
+
+        assertThat(result.block()).isSameAs(user);
+        assertThat(result.block()).isSameAs(user);
+
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(200);
+    }
+
+    @Test
+    void testFailedCallsAreTimedWithTheirException() {
+        when(userCache.findOneByLogin("user")).thenThrow(new IllegalStateException());
+        UserService proxy = proxy(new MethodTimingAdvisor(true, meterRegistryProvider));
+
+        assertThatThrownBy(() -> proxy.getUserWithAuthoritiesByLogin("user")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> proxy.getUserWithAuthoritiesByLogin("user")).isInstanceOf(IllegalStateException.class);
+
+        assertThat(
+            meterRegistry
+                .get(MethodTimingAdvisor.TIMER_NAME)
+                .tag("method", "getUserWithAuthoritiesByLogin")
+                .tag("outcome", "ERROR")
+                .tag("exception", "IllegalStateException")
+                .timer()
+                .count()
+        )
+            .isEqualTo(2);
+    }
+
+    @Test
+    void testFailedPublishersAreTimedWithTheirException() {
+        when(userCache.findOneByLogin("user")).thenReturn(Mono.error(new IllegalStateException()));
+        UserService proxy = proxy(new MethodTimingAdvisor(true, meterRegistryProvider));
+
+        assertThatThrownBy(() -> proxy.getUserWithAuthoritiesByLogin("user").block()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(
+            meterRegistry
+                .get(MethodTimingAdvisor.TIMER_NAME)
+                .tag("method", "getUserWithAuthoritiesByLogin")
+                .tag("outcome", "ERROR")
+                .tag("exception", "IllegalStateException")
+                .timer()
+                .count()
+        )
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testTimedAnnotationIsHonoredWhenDisabled() {
+        MethodTimingAdvisor advisor = new MethodTimingAdvisor(false, meterRegistryProvider);
+        assertThat(AopUtils.canApply(advisor, TimedBean.class)).isTrue();
+        ProxyFactory proxyFactory = new ProxyFactory(new TimedBean());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(advisor);
+        TimedBean proxy = (TimedBean) proxyFactory.getProxy();
+
+        assertThat(proxy.range(5).collectList().block()).hasSize(5);
+        assertThat(proxy.range(5).take(2).collectList().block()).hasSize(2);
+
+        assertThat(meterRegistry.get("test.timed").tag("outcome", "SUCCESS").tag("key", "value").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("test.timed").tag("outcome", "CANCELLED").tag("key", "value").timer().count()).isEqualTo(1);
+        DistributionSummary elements = meterRegistry.get("test.timed" + MethodTimingAdvisor.ELEMENTS_SUFFIX).summary();
+        assertThat(elements.count()).isEqualTo(2);
+        assertThat(elements.totalAmount()).isEqualTo(7);
+    }
+
+    private UserService proxy(MethodTimingAdvisor advisor) {
+        ProxyFactory proxyFactory = new ProxyFactory(userService);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(advisor);
+        return (UserService) proxyFactory.getProxy();
+    }
+
+    public static class TimedBean {
+
+        @Timed(value = "test.timed", extraTags = { "key", "value" })
+        public Flux<Integer> range(int count) {
+            return Flux.range(0, count);
+        }
+    }
+}
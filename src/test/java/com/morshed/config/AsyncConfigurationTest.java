@@ -0,0 +1,137 @@
+package com.morshed.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.task.TaskExecutionProperties;
+
+/**
+ * Test class for the {@link AsyncConfiguration} executors.
+ */
+class AsyncConfigurationTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AsyncConfiguration asyncConfiguration;
+
+    private ApplicationProperties.Async.Pool properties;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Collections.singletonMap("meterRegistry", meterRegistry));
+        TaskExecutionProperties taskExecutionProperties = new TaskExecutionProperties();
+        taskExecutionProperties.getShutdown().setAwaitTerminationPeriod(Duration.ofSeconds(5));
+        asyncConfiguration =
+            new AsyncConfiguration(taskExecutionProperties, new ApplicationProperties(), beanFactory.getBeanProvider(MeterRegistry.class));
+        properties = new ApplicationProperties.Async.Pool();
+        properties.setCoreSize(1);
+        properties.setMaxSize(1);
+        properties.setQueueCapacity(1);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        release.countDown();
+        asyncConfiguration.shutdown();
+    }
+
+    @Test
+    void testSaturatedExecutorRejectsTasks() throws Exception {
+        Executor executor = asyncConfiguration.newExecutor("test", "test-", properties);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        executor.execute(() -> {});
+
+        assertThatThrownBy(() -> executor.execute(() -> {})).isInstanceOf(RejectedExecutionException.class);
+
+        assertThat(meterRegistry.get("executor.rejected").tag("name", "test").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("executor.active").tag("name", "test").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("executor.queued").tag("name", "test").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void testCallerRunsTasksOfSaturatedExecutor() throws Exception {
+        properties.setRejectionPolicy(ApplicationProperties.Async.RejectionPolicy.CALLER_RUNS);
+        Executor executor = asyncConfiguration.newExecutor("test", "test-", properties);
+        executor.execute(() -> await(release));
+        executor.execute(() -> {});
+        CompletableFuture<String> thread = new CompletableFuture<>();
+
+        executor.execute(() -> thread.complete(Thread.currentThread().getName()));
+
+        assertThat(thread.get(5, TimeUnit.SECONDS)).isEqualTo(Thread.currentThread().getName());
+        assertThat(meterRegistry.get("executor.rejected").tag("name", "test").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testMailExecutorOnlySupportsAbortPolicy() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        assertThat(applicationProperties.getAsync().getMail().getRejectionPolicy())
+            .isEqualTo(ApplicationProperties.Async.RejectionPolicy.ABORT);
+        applicationProperties.getAsync().getMail().setRejectionPolicy(ApplicationProperties.Async.RejectionPolicy.CALLER_RUNS);
+        AsyncConfiguration mailConfiguration = new AsyncConfiguration(
+            new TaskExecutionProperties(),
+            applicationProperties,
+            new StaticListableBeanFactory(Collections.singletonMap("meterRegistry", meterRegistry)).getBeanProvider(MeterRegistry.class)
+        );
+
+        assertThatThrownBy(mailConfiguration::mailExecutor).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testTaskLatencyIsRecorded() throws Exception {
+        Executor executor = asyncConfiguration.newExecutor("test", "test-", properties);
+        CompletableFuture<String> thread = new CompletableFuture<>();
+
+        executor.execute(() -> thread.complete(Thread.currentThread().getName()));
+
+        assertThat(thread.get(5, TimeUnit.SECONDS)).startsWith("test-");
+        asyncConfiguration.shutdown();
+        assertThat(meterRegistry.get("executor").tag("name", "test").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("executor.idle").tag("name", "test").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testVirtualThreadsFallBackToPoolOnOlderJdk() throws Exception {
+        properties.setVirtualThreads(true);
+        Executor executor = asyncConfiguration.newExecutor("test", "test-", properties);
+        CompletableFuture<String> thread = new CompletableFuture<>();
+
+        executor.execute(() -> thread.complete(Thread.currentThread().getName()));
+
+        if (Runtime.version().feature() >= 21) {
+            // Virtual threads are not named
+            assertThat(thread.get(5, TimeUnit.SECONDS)).isEmpty();
+        } else {
+            assertThat(thread.get(5, TimeUnit.SECONDS)).startsWith("test-");
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.morshed.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Test class for the {@link PasswordHashingConfiguration} password encoder.
+ */
+class PasswordHashingConfigurationTest {
+
+    private static final String PASSWORD = "password";
+
+    private final PasswordHashingConfiguration passwordHashingConfiguration = new PasswordHashingConfiguration();
+
+    @Test
+    void testNewHashesArePrefixedWithEncoderId() {
+        PasswordEncoder passwordEncoder = passwordEncoder(PasswordHashingConfiguration.BCRYPT, 5);
+
+        String hash = passwordEncoder.encode(PASSWORD);
+
+        assertThat(hash).startsWith("{bcrypt}$2a$05$");
+        assertThat(passwordEncoder.matches(PASSWORD, hash)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    void testUnprefixedHashesAreMatchedAsBCrypt() {
+        PasswordEncoder passwordEncoder = passwordEncoder(PasswordHashingConfiguration.BCRYPT, 5);
+        String legacyHash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+
+        assertThat(passwordEncoder.matches(PASSWORD, legacyHash)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(legacyHash)).isTrue();
+    }
+
+    @Test
+    void testLowerBCryptStrengthIsUpgraded() {
+        String weakHash = passwordEncoder(PasswordHashingConfiguration.BCRYPT, 4).encode(PASSWORD);
+        PasswordEncoder passwordEncoder = passwordEncoder(PasswordHashingConfiguration.BCRYPT, 5);
+
+        assertThat(passwordEncoder.matches(PASSWORD, weakHash)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(weakHash)).isTrue();
+        assertThat(passwordEncoder(PasswordHashingConfiguration.BCRYPT, 4).upgradeEncoding(passwordEncoder.encode(PASSWORD))).isFalse();
+    }
+
+    @Test
+    void testOtherEncoderHashesAreUpgraded() {
+        String bcryptHash = passwordEncoder(PasswordHashingConfiguration.BCRYPT, 4).encode(PASSWORD);
+        PasswordEncoder passwordEncoder = passwordEncoder(PasswordHashingConfiguration.PBKDF2, 4);
+
+        assertThat(passwordEncoder.encode(PASSWORD)).startsWith("{pbkdf2}");
+        assertThat(passwordEncoder.matches(PASSWORD, bcryptHash)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(bcryptHash)).isTrue();
+    }
+
+    @Test
+    void testUnknownEncoderIsRejected() {
+        assertThatThrownBy(() -> passwordEncoder("md5", 4)).isInstanceOf(IllegalStateException.class).hasMessageContaining("md5");
+    }
+
+    @Test
+    void testCalibratedStrengthIsNeverBelowDefault() {
+        assertThat(passwordHashingConfiguration.calibrateBCryptStrength(Duration.ZERO))
+            .isEqualTo(PasswordHashingConfiguration.MIN_BCRYPT_STRENGTH);
+        assertThat(passwordHashingConfiguration.calibrateBCryptStrength(Duration.ofDays(365)))
+            .isGreaterThan(PasswordHashingConfiguration.MIN_BCRYPT_STRENGTH)
+            .isLessThanOrEqualTo(PasswordHashingConfiguration.MAX_BCRYPT_STRENGTH);
+    }
+
+    private PasswordEncoder passwordEncoder(String encoder, int bcryptStrength) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().getPasswordHashing().setEncoder(encoder);
+        applicationProperties.getSecurity().getPasswordHashing().setBcryptStrength(bcryptStrength);
+        return passwordHashingConfiguration.passwordEncoder(applicationProperties);
+    }
+}
@@ -0,0 +1,114 @@
+package com.morshed.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.morshed.config.ApplicationProperties;
+import com.morshed.domain.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class UserCacheTest {
+
+    private static final String LOGIN = "test-user";
+
+    private static final String EMAIL = "test-user@localhost";
+
+    private UserRepository userRepository;
+
+    private ApplicationProperties applicationProperties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+        userRepository = mock(UserRepository.class);
+        applicationProperties = new ApplicationProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        user = new User();
+        user.setLogin(LOGIN);
+        user.setEmail(EMAIL);
+        when(userRepository.findOneByLogin(LOGIN)).thenReturn(Mono.just(user));
+        when(userRepository.findOneByNormalizedEmail(EMAIL)).thenReturn(Mono.just(user));
+    }
+
+    @Test
+    void testUserIsLoadedOnce() {
+        UserCache userCache = new UserCache(userRepository, applicationProperties, meterRegistry);
+
+        assertThat(userCache.findOneByLogin(LOGIN).block()).isSameAs(user);
+        assertThat(userCache.findOneByLogin(LOGIN).block()).isSameAs(user);
+        assertThat(userCache.findOneByEmailIgnoreCase("Test-User@Localhost").block()).isSameAs(user);
+        assertThat(userCache.findOneByEmailIgnoreCase(EMAIL).block()).isSameAs(user);
+
+        verify(userRepository, times(1)).findOneByLogin(LOGIN);
+        verify(userRepository, times(1)).findOneByNormalizedEmail(EMAIL);
+        assertThat(cacheGets(UserCache.USERS_BY_LOGIN_CACHE, "hit")).isEqualTo(1);
+        assertThat(cacheGets(UserCache.USERS_BY_LOGIN_CACHE, "miss")).isEqualTo(1);
+    }
+
+    @Test
+    void testConcurrentLookupsShareOneQuery() {
+        Sinks.One<User> result = Sinks.one();
+        when(userRepository.findOneByLogin(LOGIN)).thenReturn(result.asMono());
+        UserCache userCache = new UserCache(userRepository, applicationProperties, meterRegistry);
+
+        Mono<User> first = userCache.findOneByLogin(LOGIN).cache();
+        Mono<User> second = userCache.findOneByLogin(LOGIN).cache();
+        first.subscribe();
+        second.subscribe();
+        result.tryEmitValue(user);
+
+        assertThat(first.block()).isSameAs(user);
+        assertThat(second.block()).isSameAs(user);
+        verify(userRepository, times(1)).findOneByLogin(LOGIN);
+    }
+
+    @Test
+    void testUnknownUserIsNotCached() {
+        when(userRepository.findOneByLogin("unknown")).thenReturn(Mono.empty());
+        UserCache userCache = new UserCache(userRepository, applicationProperties, meterRegistry);
+
+        assertThat(userCache.findOneByLogin("unknown").blockOptional()).isEmpty();
+        assertThat(userCache.findOneByLogin("unknown").blockOptional()).isEmpty();
+
+        verify(userRepository, times(2)).findOneByLogin("unknown");
+    }
+
+    @Test
+    void testEvictRemovesLoginAndEmail() {
+        UserCache userCache = new UserCache(userRepository, applicationProperties, meterRegistry);
+        userCache.findOneByLogin(LOGIN).block();
+        userCache.findOneByEmailIgnoreCase(EMAIL).block();
+
+        userCache.evict(user);
+        userCache.findOneByLogin(LOGIN).block();
+        userCache.findOneByEmailIgnoreCase(EMAIL).block();
+
+        verify(userRepository, times(2)).findOneByLogin(LOGIN);
+        verify(userRepository, times(2)).findOneByNormalizedEmail(EMAIL);
+    }
+
+    @Test
+    void testDisabledCacheQueriesEveryTime() {
+        applicationProperties.getUserCache().setEnabled(false);
+        UserCache userCache = new UserCache(userRepository, applicationProperties, meterRegistry);
+
+        userCache.findOneByLogin(LOGIN).block();
+        userCache.findOneByLogin(LOGIN).block();
+
+        verify(userRepository, times(2)).findOneByLogin(LOGIN);
+    }
+
+    private double cacheGets(String cacheName, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cacheName).tag("result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,80 @@
+package com.morshed.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.morshed.config.ApplicationProperties;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+class UserCountTest {
+
+    private UserRepository userRepository;
+
+    private ApplicationProperties applicationProperties;
+
+    private AtomicInteger estimatedCounts;
+
+    @BeforeEach
+    public void setup() {
+        userRepository = mock(UserRepository.class);
+        applicationProperties = new ApplicationProperties();
+        estimatedCounts = new AtomicInteger();
+        when(userRepository.estimatedCount()).thenReturn(Mono.fromCallable(() -> (long) estimatedCounts.incrementAndGet()));
+        when(userRepository.count()).thenReturn(Mono.just(42L));
+    }
+
+    @Test
+    void testEstimatedCountIsCached() {
+        UserCount userCount = new UserCount(userRepository, applicationProperties);
+
+        assertThat(userCount.count(false).block()).isEqualTo(1L);
+        assertThat(userCount.count(false).block()).isEqualTo(1L);
+
+        assertThat(estimatedCounts).hasValue(1);
+        verify(userRepository, never()).count();
+    }
+
+    @Test
+    void testExactCountIsNotCached() {
+        UserCount userCount = new UserCount(userRepository, applicationProperties);
+
+        assertThat(userCount.count(true).block()).isEqualTo(42L);
+        assertThat(userCount.count(true).block()).isEqualTo(42L);
+
+        verify(userRepository, times(2)).count();
+        assertThat(estimatedCounts).hasValue(0);
+    }
+
+    @Test
+    void testFailedCountIsNotCached() {
+        AtomicInteger attempts = new AtomicInteger();
+        when(userRepository.estimatedCount())
+            .thenReturn(
+                Mono.defer(() -> attempts.incrementAndGet() == 1 ? Mono.error(new IllegalStateException("unavailable")) : Mono.just(7L))
+            );
+        UserCount userCount = new UserCount(userRepository, applicationProperties);
+
+        assertThatThrownBy(() -> userCount.count(false).block()).isInstanceOf(IllegalStateException.class);
+        assertThat(userCount.count(false).block()).isEqualTo(7L);
+    }
+
+    @Test
+    void testZeroTimeToLiveCountsEveryTime() {
+        applicationProperties.getUserCount().setTimeToLive(Duration.ZERO);
+        UserCount userCount = new UserCount(userRepository, applicationProperties);
+
+        userCount.count(false).block();
+        userCount.count(false).block();
+
+        assertThat(estimatedCounts).hasValue(2);
+    }
+}
@@ -0,0 +1,59 @@
+package com.morshed.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+class UserCursorTest {
+
+    @Test
+    void testEncodeDecode() {
+        ObjectId id = new ObjectId();
+        Date createdDate = new Date();
+        UserCursor cursor = new UserCursor("createdDate", Sort.Direction.DESC, createdDate, id);
+
+        UserCursor decoded = UserCursor.decode(cursor.encode());
+
+        assertThat(decoded.isFor(Sort.Order.desc("createdDate"))).isTrue();
+        assertThat(decoded.isFor(Sort.Order.asc("createdDate"))).isFalse();
+        assertThat(decoded.getValue()).isEqualTo(createdDate);
+        assertThat(decoded.getId()).isEqualTo(id);
+    }
+
+    @Test
+    void testEncodeDecodeNullValueAndStringId() {
+        UserCursor cursor = new UserCursor("lastName", Sort.Direction.ASC, null, "user-1");
+
+        UserCursor decoded = UserCursor.decode(cursor.encode());
+
+        assertThat(decoded.getValue()).isNull();
+        assertThat(decoded.getId()).isEqualTo("user-1");
+    }
+
+    @Test
+    void testDecodeRejectsMalformedToken() {
+        assertThatThrownBy(() -> UserCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> UserCursor.decode(encode("{\"p\": \"login\", \"d\": \"UP\", \"v\": \"a\", \"i\": \"b\"}")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> UserCursor.decode(encode("{\"d\": \"ASC\", \"v\": \"a\", \"i\": \"b\"}")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testDecodeRejectsOperators() {
+        assertThatThrownBy(() -> UserCursor.decode(encode("{\"p\": \"login\", \"d\": \"ASC\", \"v\": {\"$ne\": null}, \"i\": \"b\"}")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> UserCursor.decode(encode("{\"p\": \"login\", \"d\": \"ASC\", \"v\": \"a\", \"i\": {\"$gt\": \"\"}}")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,62 @@
+package com.morshed.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Test class for the {@link AuthorityRegistry} utility class.
+ */
+class AuthorityRegistryTest {
+
+    private final AuthorityRegistry authorityRegistry = new AuthorityRegistry();
+
+    @Test
+    void testResolvesAuthoritiesInClaimOrder() {
+        List<GrantedAuthority> authorities = authorityRegistry.getAuthorities(AuthoritiesConstants.ADMIN + "," + AuthoritiesConstants.USER);
+
+        assertThat(authorities)
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+    }
+
+    @Test
+    void testSameClaimReturnsSameInstance() {
+        List<GrantedAuthority> first = authorityRegistry.getAuthorities("ROLE_CUSTOM,ROLE_USER");
+        List<GrantedAuthority> second = authorityRegistry.getAuthorities("ROLE_CUSTOM,ROLE_USER");
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.get(1)).isSameAs(authorityRegistry.getAuthority(AuthoritiesConstants.USER));
+    }
+
+    @Test
+    void testBlankEntriesAreIgnored() {
+        assertThat(authorityRegistry.getAuthorities("")).isEmpty();
+        assertThat(authorityRegistry.getAuthorities(",ROLE_USER, "))
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void testAuthoritiesAreImmutable() {
+        List<GrantedAuthority> authorities = authorityRegistry.getAuthorities(AuthoritiesConstants.USER);
+
+        assertThatThrownBy(() -> authorities.add(authorityRegistry.getAuthority(AuthoritiesConstants.ADMIN)))
+            .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void testClaimsBeyondLimitAreStillResolved() {
+        for (int i = 0; i < AuthorityRegistry.MAX_INTERNED; i++) {
+            authorityRegistry.getAuthorities("ROLE_" + i);
+        }
+
+        List<GrantedAuthority> authorities = authorityRegistry.getAuthorities("ROLE_OVERFLOW");
+
+        assertThat(authorities).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_OVERFLOW");
+        assertThat(authorityRegistry.getAuthorities("ROLE_OVERFLOW")).isNotSameAs(authorities);
+    }
+}
@@ -11,6 +11,7 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -33,6 +34,9 @@ class DomainUserDetailsServiceIT {
     @Autowired
     private ReactiveUserDetailsService domainUserDetailsService;
 
+    @Autowired
+    private ReactiveUserDetailsPasswordService domainUserDetailsPasswordService;
+
     @BeforeEach
     public void init() {
         userRepository.deleteAll().block();
@@ -108,4 +112,30 @@ class DomainUserDetailsServiceIT {
         assertThatExceptionOfType(UserNotActivatedException.class)
             .isThrownBy(() -> domainUserDetailsService.findByUsername(USER_THREE_LOGIN).block());
     }
+
+    @Test
+    void assertThatUpgradedPasswordIsStored() {
+        UserDetails userDetails = domainUserDetailsService.findByUsername(USER_ONE_LOGIN).block();
+        String newPassword = RandomStringUtils.random(60);
+
+        UserDetails updated = domainUserDetailsPasswordService.updatePassword(userDetails, newPassword).block();
+
+        assertThat(updated).isNotNull();
+        assertThat(updated.getPassword()).isEqualTo(newPassword);
+        assertThat(userRepository.findOneByLogin(USER_ONE_LOGIN).block().getPassword()).isEqualTo(newPassword);
+    }
+
+    @Test
+    void assertThatPasswordChangedSinceLoginIsNotOverwritten() {
+        UserDetails userDetails = domainUserDetailsService.findByUsername(USER_ONE_LOGIN).block();
+        User user = userRepository.findOneByLogin(USER_ONE_LOGIN).block();
+        String changedPassword = RandomStringUtils.random(60);
+        user.setPassword(changedPassword);
+        userRepository.save(user).block();
+
+        UserDetails updated = domainUserDetailsPasswordService.updatePassword(userDetails, RandomStringUtils.random(60)).block();
+
+        assertThat(updated).isSameAs(userDetails);
+        assertThat(userRepository.findOneByLogin(USER_ONE_LOGIN).block().getPassword()).isEqualTo(changedPassword);
+    }
 }
@@ -0,0 +1,119 @@
+package com.morshed.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.morshed.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link LoginAttemptLimiter}.
+ */
+class LoginAttemptLimiterTest {
+
+    private static final String LOGIN = "user";
+
+    private static final String IP = "192.0.2.1";
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private LoginAttemptLimiter loginAttemptLimiter;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.Security.LoginRateLimit loginRateLimit = applicationProperties.getSecurity().getLoginRateLimit();
+        loginRateLimit.getPerLogin().setCapacity(3);
+        loginRateLimit.getPerLogin().setRefillPeriod(Duration.ofMinutes(1));
+        loginRateLimit.getPerIp().setCapacity(5);
+        loginRateLimit.getPerIp().setRefillPeriod(Duration.ofSeconds(1));
+        meterRegistry = new SimpleMeterRegistry();
+        loginAttemptLimiter = new LoginAttemptLimiter(applicationProperties, meterRegistry, nanos::get);
+    }
+
+    @Test
+    void testLoginIsRejectedOnceBucketIsEmpty() {
+        for (int i = 0; i < 3; i++) {
+            loginAttemptLimiter.checkAttempt(LOGIN, null);
+        }
+
+        assertThatThrownBy(() -> loginAttemptLimiter.checkAttempt(LOGIN.toUpperCase(), null))
+            .isInstanceOf(TooManyLoginAttemptsException.class)
+            .extracting(e -> ((TooManyLoginAttemptsException) e).getRetryAfter())
+            .isEqualTo(Duration.ofMinutes(1));
+        assertThat(meterRegistry.get("login.attempts.rejected").tag("limit", LoginAttemptLimiter.LOGIN).counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("login.attempts.blocked").tag("limit", LoginAttemptLimiter.LOGIN).gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void testBucketRefillsOverTime() {
+        for (int i = 0; i < 3; i++) {
+            loginAttemptLimiter.checkAttempt(LOGIN, null);
+        }
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        assertThatCode(() -> loginAttemptLimiter.checkAttempt(LOGIN, null)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> loginAttemptLimiter.checkAttempt(LOGIN, null)).isInstanceOf(TooManyLoginAttemptsException.class);
+    }
+
+    @Test
+    void testIpIsLimitedAcrossLogins() {
+        for (int i = 0; i < 5; i++) {
+            loginAttemptLimiter.checkAttempt(LOGIN + i, IP);
+        }
+
+        assertThatThrownBy(() -> loginAttemptLimiter.checkAttempt("another-user", IP)).isInstanceOf(TooManyLoginAttemptsException.class);
+        assertThatCode(() -> loginAttemptLimiter.checkAttempt("another-user", "192.0.2.2")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void testAttemptRejectedForLoginDoesNotCountAgainstIp() {
+        for (int i = 0; i < 3; i++) {
+            loginAttemptLimiter.checkAttempt(LOGIN, IP);
+        }
+        assertThatThrownBy(() -> loginAttemptLimiter.checkAttempt(LOGIN, IP)).isInstanceOf(TooManyLoginAttemptsException.class);
+
+        assertThatCode(() -> loginAttemptLimiter.checkAttempt("another-user", IP)).doesNotThrowAnyException();
+        assertThatCode(() -> loginAttemptLimiter.checkAttempt("another-user", IP)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> loginAttemptLimiter.checkAttempt("another-user", IP)).isInstanceOf(TooManyLoginAttemptsException.class);
+    }
+
+    @Test
+    void testSuccessfulLoginRefillsBucket() {
+        for (int i = 0; i < 3; i++) {
+            loginAttemptLimiter.checkAttempt(LOGIN, null);
+        }
+
+        loginAttemptLimiter.loginSucceeded(LOGIN);
+
+        assertThatCode(() -> loginAttemptLimiter.checkAttempt(LOGIN, null)).doesNotThrowAnyException();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStateListsBlockedKeysUntilReset() {
+        for (int i = 0; i < 4; i++) {
+            try {
+                loginAttemptLimiter.checkAttempt(LOGIN, null);
+            } catch (TooManyLoginAttemptsException e) {
+                // expected for the last attempt
+            }
+        }
+
+        Map<String, Object> loginState = (Map<String, Object>) loginAttemptLimiter.getState().get(LoginAttemptLimiter.LOGIN);
+        assertThat(loginState.get("tracked")).isEqualTo(1L);
+        assertThat((Map<String, Long>) loginState.get("blocked")).containsEntry(LOGIN, 60L);
+
+        loginAttemptLimiter.reset(LOGIN);
+
+        assertThatCode(() -> loginAttemptLimiter.checkAttempt(LOGIN, null)).doesNotThrowAnyException();
+    }
+}
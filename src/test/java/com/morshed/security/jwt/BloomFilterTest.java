@@ -0,0 +1,44 @@
+package com.morshed.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link BloomFilter}.
+ */
+class BloomFilterTest {
+
+    @Test
+    void testAddedValuesAreAlwaysFound() {
+        BloomFilter bloomFilter = new BloomFilter(1000, 0.01);
+        String[] values = IntStream.range(0, 1000).mapToObj(i -> UUID.randomUUID().toString()).toArray(String[]::new);
+
+        for (String value : values) {
+            bloomFilter.put(value);
+        }
+
+        assertThat(values).allMatch(bloomFilter::mightContain);
+    }
+
+    @Test
+    void testFalsePositiveRateStaysCloseToTarget() {
+        BloomFilter bloomFilter = new BloomFilter(1000, 0.01);
+        IntStream.range(0, 1000).forEach(i -> bloomFilter.put("revoked-" + i));
+
+        long falsePositives = IntStream.range(0, 100_000).filter(i -> bloomFilter.mightContain("valid-" + i)).count();
+
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void testSizing() {
+        BloomFilter bloomFilter = new BloomFilter(10_000, 0.01);
+
+        // ~9.6 bits and 7 hash functions per element for a 1% false positive probability
+        assertThat(bloomFilter.getBitCount()).isBetween(95_000, 96_000);
+        assertThat(bloomFilter.getHashCount()).isEqualTo(7);
+    }
+}
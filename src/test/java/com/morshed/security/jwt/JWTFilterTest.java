@@ -2,9 +2,11 @@ package com.morshed.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.morshed.config.ApplicationProperties;
 import com.morshed.security.AuthoritiesConstants;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.Collections;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -29,11 +31,20 @@ class JWTFilterTest {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         String base64Secret = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
-        tokenProvider = new TokenProvider(jHipsterProperties);
+        tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties());
         ReflectionTestUtils.setField(tokenProvider, "key", Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
 
         ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", 60000);
-        jwtFilter = new JWTFilter(tokenProvider);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        jwtFilter =
+            new JWTFilter(
+                new TokenAuthenticationCache(
+                    tokenProvider,
+                    new TokenRevocationList(applicationProperties),
+                    applicationProperties,
+                    new SimpleMeterRegistry()
+                )
+            );
     }
 
     @Test
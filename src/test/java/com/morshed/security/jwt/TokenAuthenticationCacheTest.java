@@ -0,0 +1,136 @@
+package com.morshed.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.morshed.config.ApplicationProperties;
+import com.morshed.domain.RevokedToken;
+import com.morshed.security.AuthoritiesConstants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+import tech.jhipster.config.JHipsterProperties;
+
+class TokenAuthenticationCacheTest {
+
+    private static final long ONE_MINUTE = 60000;
+
+    private TokenProvider tokenProvider;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TokenRevocationList tokenRevocationList;
+
+    private TokenAuthenticationCache tokenAuthenticationCache;
+
+    @BeforeEach
+    public void setup() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        String base64Secret = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
+        tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties());
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", ONE_MINUTE);
+
+        meterRegistry = new SimpleMeterRegistry();
+        tokenRevocationList = new TokenRevocationList(new ApplicationProperties());
+        tokenAuthenticationCache =
+            new TokenAuthenticationCache(tokenProvider, tokenRevocationList, new ApplicationProperties(), meterRegistry);
+    }
+
+    @Test
+    void testValidTokenIsResolvedFromCacheOnSecondCall() {
+        String jwt = tokenProvider.createToken(createAuthentication(), false);
+
+        Optional<Authentication> first = tokenAuthenticationCache.getAuthentication(jwt);
+        Optional<Authentication> second = tokenAuthenticationCache.getAuthentication(jwt);
+
+        assertThat(first).isPresent();
+        assertThat(first.get().getName()).isEqualTo("test-user");
+        assertThat(first.get().getAuthorities()).extracting("authority").containsExactly(AuthoritiesConstants.USER);
+        assertThat(second).containsSame(first.get());
+        assertThat(cacheGets("hit")).isEqualTo(1);
+        assertThat(cacheGets("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void testInvalidTokenIsNotCached() {
+        String jwt = tokenProvider.createToken(createAuthentication(), false).substring(1);
+
+        assertThat(tokenAuthenticationCache.getAuthentication(jwt)).isEmpty();
+        assertThat(tokenAuthenticationCache.getAuthentication(jwt)).isEmpty();
+        assertThat(cacheGets("hit")).isZero();
+        assertThat(cacheGets("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void testExpiredTokenIsRejected() {
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -ONE_MINUTE);
+        String jwt = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenAuthenticationCache.getAuthentication(jwt)).isEmpty();
+    }
+
+    @Test
+    void testRevokedTokenIsRejectedEvenWhenCached() {
+        String jwt = tokenProvider.createToken(createAuthentication(), false);
+        assertThat(tokenAuthenticationCache.getAuthentication(jwt)).isPresent();
+
+        tokenRevocationList.revoke(revokedToken(RevokedToken.Type.TOKEN, tokenProvider.resolveToken(jwt).getTokenId()));
+
+        assertThat(tokenAuthenticationCache.getAuthentication(jwt)).isEmpty();
+    }
+
+    @Test
+    void testTokensIssuedBeforeUserRevocationAreRejected() {
+        String jwt = tokenProvider.createToken(createAuthentication(), false);
+        assertThat(tokenAuthenticationCache.getAuthentication(jwt)).isPresent();
+
+        tokenRevocationList.revoke(revokedToken(RevokedToken.Type.USER, "test-user"));
+
+        assertThat(tokenAuthenticationCache.getAuthentication(jwt)).isEmpty();
+    }
+
+    @Test
+    void testTokensIssuedAfterUserRevocationAreAccepted() {
+        RevokedToken revokedToken = revokedToken(RevokedToken.Type.USER, "test-user");
+        revokedToken.setRevokedAt(Instant.now().minus(1, ChronoUnit.MINUTES));
+        tokenRevocationList.revoke(revokedToken);
+
+        String jwt = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenAuthenticationCache.getAuthentication(jwt)).isPresent();
+    }
+
+    private RevokedToken revokedToken(RevokedToken.Type type, String value) {
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setType(type);
+        revokedToken.setValue(value);
+        revokedToken.setRevokedAt(Instant.now());
+        revokedToken.setExpiresAt(Instant.now().plus(1, ChronoUnit.DAYS));
+        return revokedToken;
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry
+            .get("cache.gets")
+            .tag("cache", TokenAuthenticationCache.CACHE_NAME)
+            .tag("result", result)
+            .functionCounter()
+            .count();
+    }
+
+    private Authentication createAuthentication() {
+        return new UsernamePasswordAuthenticationToken(
+            "test-user",
+            "test-password",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+    }
+}
@@ -1,7 +1,10 @@
 package com.morshed.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
 
+import com.morshed.config.ApplicationProperties;
 import com.morshed.security.AuthoritiesConstants;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -9,9 +12,15 @@ import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
 import java.util.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -31,13 +40,24 @@ class TokenProviderTest {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         String base64Secret = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
-        tokenProvider = new TokenProvider(jHipsterProperties);
+        tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties());
         key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
         ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", ONE_MINUTE);
     }
 
+    @Test
+    void testTokenHasUniqueIdAndIssueDate() {
+        Authentication authentication = createAuthentication();
+
+        TokenValidationResult first = tokenProvider.resolveToken(tokenProvider.createToken(authentication, false));
+        TokenValidationResult second = tokenProvider.resolveToken(tokenProvider.createToken(authentication, false));
+
+        assertThat(first.getTokenId()).isNotBlank().isNotEqualTo(second.getTokenId());
+        assertThat(first.getIssuedAt()).isCloseTo(Instant.now().getEpochSecond(), within(2L));
+    }
+
     @Test
     void testReturnFalseWhenJWThasInvalidSignature() {
         boolean isTokenValid = tokenProvider.validateToken(createTokenWithDifferentSignature());
@@ -83,13 +103,49 @@ class TokenProviderTest {
         assertThat(isTokenValid).isFalse();
     }
 
+    @Test
+    void testResolveTokenReturnsAuthenticationAndExpiration() {
+        Authentication authentication = createAuthentication();
+        String token = tokenProvider.createToken(authentication, false);
+
+        TokenValidationResult result = tokenProvider.resolveToken(token);
+
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getFailureReason()).isEmpty();
+        assertThat(result.getAuthentication()).hasValueSatisfying(auth -> {
+            assertThat(auth.getName()).isEqualTo("anonymous");
+            assertThat(auth.getCredentials()).isEqualTo(token);
+            assertThat(auth.getAuthorities()).extracting("authority").containsExactly(AuthoritiesConstants.ANONYMOUS);
+        });
+        assertThat(result.getExpiration()).isPresent();
+    }
+
+    @Test
+    void testResolveTokenReportsFailureReason() {
+        assertThat(tokenProvider.resolveToken(createTokenWithDifferentSignature()).getFailureReason())
+            .contains(TokenValidationResult.FailureReason.INVALID_SIGNATURE);
+        assertThat(tokenProvider.resolveToken(createUnsupportedToken()).getFailureReason())
+            .contains(TokenValidationResult.FailureReason.UNSUPPORTED);
+        assertThat(tokenProvider.resolveToken("").getFailureReason()).contains(TokenValidationResult.FailureReason.EMPTY);
+
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        assertThat(tokenProvider.resolveToken(token.substring(1)).getFailureReason())
+            .contains(TokenValidationResult.FailureReason.MALFORMED);
+
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -ONE_MINUTE);
+        String expiredToken = tokenProvider.createToken(createAuthentication(), false);
+        TokenValidationResult expired = tokenProvider.resolveToken(expiredToken);
+        assertThat(expired.getFailureReason()).contains(TokenValidationResult.FailureReason.EXPIRED);
+        assertThat(expired.getAuthentication()).isEmpty();
+    }
+
     @Test
     void testKeyIsSetFromSecretWhenSecretIsNotEmpty() {
         final String secret = "NwskoUmKHZtzGRKJKVjsJF7BtQMMxNWi";
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setSecret(secret);
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties());
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
@@ -101,18 +157,81 @@ class TokenProviderTest {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties());
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
     }
 
+    @Test
+    void testES256TokenIsVerifiedWithPublicKeyOnly() throws Exception {
+        KeyPair keyPair = generateES256KeyPair();
+        TokenProvider signingTokenProvider = createES256TokenProvider(keyPair, true);
+        TokenProvider verifyingTokenProvider = createES256TokenProvider(keyPair, false);
+
+        String token = signingTokenProvider.createToken(createAuthentication(), false);
+        TokenValidationResult result = verifyingTokenProvider.resolveToken(token);
+
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getAuthentication()).hasValueSatisfying(auth -> assertThat(auth.getName()).isEqualTo("anonymous"));
+    }
+
+    @Test
+    void testES256TokenProviderRejectsTokenSignedWithOtherKey() throws Exception {
+        TokenProvider signingTokenProvider = createES256TokenProvider(generateES256KeyPair(), true);
+        TokenProvider verifyingTokenProvider = createES256TokenProvider(generateES256KeyPair(), false);
+
+        String token = signingTokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(verifyingTokenProvider.resolveToken(token).getFailureReason())
+            .contains(TokenValidationResult.FailureReason.INVALID_SIGNATURE);
+    }
+
+    @Test
+    void testES256TokenProviderRejectsHS512Token() throws Exception {
+        TokenProvider verifyingTokenProvider = createES256TokenProvider(generateES256KeyPair(), false);
+
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(verifyingTokenProvider.validateToken(token)).isFalse();
+    }
+
+    @Test
+    void testES256TokenProviderWithoutPrivateKeyCannotCreateToken() throws Exception {
+        TokenProvider verifyingTokenProvider = createES256TokenProvider(generateES256KeyPair(), false);
+
+        assertThatThrownBy(() -> verifyingTokenProvider.createToken(createAuthentication(), false))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
     private Authentication createAuthentication() {
         Collection<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
         return new UsernamePasswordAuthenticationToken("anonymous", "anonymous", authorities);
     }
 
+    private KeyPair generateES256KeyPair() throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC");
+        keyPairGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    private TokenProvider createES256TokenProvider(KeyPair keyPair, boolean withPrivateKey) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.Security.Authentication.Jwt jwt = applicationProperties.getSecurity().getAuthentication().getJwt();
+        jwt.setSignatureAlgorithm(SignatureAlgorithm.ES256);
+        jwt.setPublicKey(toPem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+        if (withPrivateKey) {
+            jwt.setPrivateKey(toPem("PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+        }
+        return new TokenProvider(new JHipsterProperties(), applicationProperties);
+    }
+
+    private Resource toPem(String type, byte[] encoded) {
+        String pem = "-----BEGIN " + type + "-----\n" + Base64.getMimeEncoder().encodeToString(encoded) + "\n-----END " + type + "-----\n";
+        return new ByteArrayResource(pem.getBytes(StandardCharsets.US_ASCII));
+    }
+
     private String createUnsupportedToken() {
         return Jwts.builder().setPayload("payload").signWith(key, SignatureAlgorithm.HS512).compact();
     }
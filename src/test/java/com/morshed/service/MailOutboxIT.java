@@ -0,0 +1,174 @@
+package com.morshed.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.morshed.IntegrationTest;
+import com.morshed.config.ApplicationProperties;
+import com.morshed.domain.OutboxMail;
+import com.morshed.repository.OutboxMailRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Integration tests for {@link MailOutbox}, sending to a {@link SmtpServerStub}.
+ */
+@IntegrationTest
+class MailOutboxIT {
+
+    @Autowired
+    private OutboxMailRepository outboxMailRepository;
+
+    @Autowired
+    private JHipsterProperties jHipsterProperties;
+
+    private ApplicationProperties applicationProperties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SmtpServerStub smtpServer;
+
+    private MailOutbox mailOutbox;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        outboxMailRepository.deleteAll().block();
+        smtpServer = new SmtpServerStub();
+        JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+        javaMailSender.setHost("localhost");
+        javaMailSender.setPort(smtpServer.getPort());
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getMailOutbox().setMaxAttempts(2);
+        meterRegistry = new SimpleMeterRegistry();
+        mailOutbox = new MailOutbox(outboxMailRepository, javaMailSender, jHipsterProperties, applicationProperties, meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        smtpServer.close();
+    }
+
+    @Test
+    void drainSendsQueuedMailsOverOneConnection() {
+        mailOutbox.enqueue(Arrays.asList(newMail("john@localhost"), newMail("jane@localhost"), newMail("jim@localhost"))).block();
+
+        assertThat(mailOutbox.drain().block()).isEqualTo(3);
+
+        assertThat(smtpServer.getMessages()).hasSize(3);
+        assertThat(smtpServer.getConnections()).isEqualTo(1);
+        assertThat(smtpServer.getMessages().get(0)).contains("Subject: testSubject");
+        assertThat(outboxMailRepository.count().block()).isZero();
+        assertThat(meterRegistry.get("mail.outbox.sent").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void drainSendsAllBatches() {
+        applicationProperties.getMailOutbox().setBatchSize(2);
+        List<OutboxMail> mails = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            mails.add(newMail("user" + i + "@localhost"));
+        }
+        mailOutbox.enqueue(mails).block();
+
+        assertThat(mailOutbox.drain().block()).isEqualTo(5);
+
+        assertThat(smtpServer.getMessages()).hasSize(5);
+        assertThat(smtpServer.getConnections()).isEqualTo(3);
+    }
+
+    @Test
+    void drainRetriesFailedMailsLater() {
+        mailOutbox.enqueue(Arrays.asList(newMail("john@localhost"), newMail(SmtpServerStub.REJECTED_PREFIX + "@localhost"))).block();
+
+        assertThat(mailOutbox.drain().block()).isEqualTo(1);
+
+        List<OutboxMail> remaining = outboxMailRepository.findAll().collectList().block();
+        assertThat(remaining).hasSize(1);
+        OutboxMail failed = remaining.get(0);
+        assertThat(failed.getTo()).isEqualTo(SmtpServerStub.REJECTED_PREFIX + "@localhost");
+        assertThat(failed.getStatus()).isEqualTo(OutboxMail.Status.PENDING);
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getLastError()).isNotNull();
+        assertThat(failed.getClaim()).isNull();
+        Duration initialBackoff = applicationProperties.getMailOutbox().getInitialBackoff();
+        assertThat(failed.getNextAttemptAt()).isAfter(Instant.now().plus(initialBackoff).minusSeconds(5));
+        assertThat(meterRegistry.get("mail.outbox.retried").counter().count()).isEqualTo(1);
+
+        // Not due yet
+        assertThat(mailOutbox.drain().block()).isZero();
+        assertThat(outboxMailRepository.findAll().collectList().block()).extracting(OutboxMail::getAttempts).containsExactly(1);
+    }
+
+    @Test
+    void drainDeadLettersMailsAfterMaxAttempts() {
+        OutboxMail mail = newMail(SmtpServerStub.REJECTED_PREFIX + "@localhost");
+        mailOutbox.enqueue(Collections.singletonList(mail)).block();
+        mail.setAttempts(1);
+        outboxMailRepository.save(mail).block();
+
+        assertThat(mailOutbox.drain().block()).isZero();
+
+        OutboxMail dead = outboxMailRepository.findById(mail.getId()).block();
+        assertThat(dead.getStatus()).isEqualTo(OutboxMail.Status.DEAD);
+        assertThat(dead.getAttempts()).isEqualTo(2);
+        assertThat(meterRegistry.get("mail.outbox.dead.lettered").counter().count()).isEqualTo(1);
+        // Dead letters are not claimed again
+        assertThat(outboxMailRepository.claimDue(Instant.now().plus(Duration.ofDays(1)), 10, Duration.ofMinutes(1)).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void drainKeepsMailsWhenTheServerIsDown() throws Exception {
+        smtpServer.close();
+        mailOutbox.enqueue(Collections.singletonList(newMail("john@localhost"))).block();
+
+        assertThat(mailOutbox.drain().block()).isZero();
+
+        List<OutboxMail> remaining = outboxMailRepository.findAll().collectList().block();
+        assertThat(remaining).extracting(OutboxMail::getAttempts).containsExactly(1);
+        assertThat(remaining).extracting(OutboxMail::getStatus).containsExactly(OutboxMail.Status.PENDING);
+    }
+
+    @Test
+    void claimSkipsMailsClaimedByAnotherNode() {
+        mailOutbox.enqueue(Collections.singletonList(newMail("john@localhost"))).block();
+        Instant now = Instant.now();
+
+        assertThat(outboxMailRepository.claimDue(now, 10, Duration.ofMinutes(1)).collectList().block()).hasSize(1);
+        assertThat(outboxMailRepository.claimDue(now, 10, Duration.ofMinutes(1)).collectList().block()).isEmpty();
+        // Claimed again once the claim times out
+        assertThat(outboxMailRepository.claimDue(now.plus(Duration.ofMinutes(2)), 10, Duration.ofMinutes(1)).collectList().block())
+            .hasSize(1);
+    }
+
+    @Test
+    void backoffDoublesUpToTheMaximum() {
+        ApplicationProperties.MailOutbox properties = applicationProperties.getMailOutbox();
+        properties.setInitialBackoff(Duration.ofSeconds(30));
+        properties.setMaxBackoff(Duration.ofMinutes(5));
+
+        assertThat(mailOutbox.backoff(1)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(mailOutbox.backoff(2)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(mailOutbox.backoff(4)).isEqualTo(Duration.ofMinutes(4));
+        assertThat(mailOutbox.backoff(5)).isEqualTo(Duration.ofMinutes(5));
+        assertThat(mailOutbox.backoff(100)).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    private static OutboxMail newMail(String to) {
+        OutboxMail mail = new OutboxMail();
+        mail.setTo(to);
+        mail.setSubject("testSubject");
+        mail.setContent("testContent");
+        return mail;
+    }
+}
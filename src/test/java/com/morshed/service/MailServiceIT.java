@@ -2,10 +2,13 @@ package com.morshed.service;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 import com.morshed.IntegrationTest;
 import com.morshed.config.Constants;
+import com.morshed.domain.OutboxMail;
 import com.morshed.domain.User;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -14,6 +17,10 @@ import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -25,6 +32,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,6 +40,7 @@ import org.springframework.context.MessageSource;
 import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.thymeleaf.spring5.SpringTemplateEngine;
+import reactor.core.publisher.Mono;
 import tech.jhipster.config.JHipsterProperties;
 
 /**
@@ -58,21 +67,27 @@ class MailServiceIT {
     @Spy
     private JavaMailSenderImpl javaMailSender;
 
+    @Mock
+    private MailOutbox mailOutbox;
+
     @Captor
     private ArgumentCaptor<MimeMessage> messageCaptor;
 
+    @Captor
+    private ArgumentCaptor<List<OutboxMail>> mailsCaptor;
+
     private MailService mailService;
 
     @BeforeEach
     public void setup() {
         MockitoAnnotations.initMocks(this);
         doNothing().when(javaMailSender).send(any(MimeMessage.class));
-        mailService = new MailService(jHipsterProperties, javaMailSender, messageSource, templateEngine);
+        mailService = new MailService(jHipsterProperties, javaMailSender, messageSource, templateEngine, mailOutbox, Runnable::run);
     }
 
     @Test
     void testSendEmail() throws Exception {
-        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false).block();
         verify(javaMailSender).send(messageCaptor.capture());
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getSubject()).isEqualTo("testSubject");
@@ -85,7 +100,7 @@ class MailServiceIT {
 
     @Test
     void testSendHtmlEmail() throws Exception {
-        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, true);
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, true).block();
         verify(javaMailSender).send(messageCaptor.capture());
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getSubject()).isEqualTo("testSubject");
@@ -98,7 +113,7 @@ class MailServiceIT {
 
     @Test
     void testSendMultipartEmail() throws Exception {
-        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", true, false);
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", true, false).block();
         verify(javaMailSender).send(messageCaptor.capture());
         MimeMessage message = messageCaptor.getValue();
         MimeMultipart mp = (MimeMultipart) message.getContent();
@@ -115,7 +130,7 @@ class MailServiceIT {
 
     @Test
     void testSendMultipartHtmlEmail() throws Exception {
-        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", true, true);
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", true, true).block();
         verify(javaMailSender).send(messageCaptor.capture());
         MimeMessage message = messageCaptor.getValue();
         MimeMultipart mp = (MimeMultipart) message.getContent();
@@ -136,7 +151,7 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         user.setLangKey("en");
-        mailService.sendEmailFromTemplate(user, "mail/testEmail", "email.test.title");
+        mailService.sendEmailFromTemplate(user, "mail/testEmail", "email.test.title").block();
         verify(javaMailSender).send(messageCaptor.capture());
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getSubject()).isEqualTo("test title");
@@ -152,7 +167,7 @@ class MailServiceIT {
         user.setLangKey(Constants.DEFAULT_LANGUAGE);
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
-        mailService.sendActivationEmail(user);
+        mailService.sendActivationEmail(user).block();
         verify(javaMailSender).send(messageCaptor.capture());
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
@@ -167,7 +182,7 @@ class MailServiceIT {
         user.setLangKey(Constants.DEFAULT_LANGUAGE);
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
-        mailService.sendCreationEmail(user);
+        mailService.sendCreationEmail(user).block();
         verify(javaMailSender).send(messageCaptor.capture());
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
@@ -176,13 +191,90 @@ class MailServiceIT {
         assertThat(message.getDataHandler().getContentType()).isEqualTo("text/html;charset=UTF-8");
     }
 
+    @Test
+    void testSendCreationEmails() throws Exception {
+        List<MimeMessage[]> batches = new ArrayList<>();
+        JavaMailSenderImpl batchMailSender = new JavaMailSenderImpl() {
+            @Override
+            public void send(MimeMessage... mimeMessages) {
+                batches.add(mimeMessages);
+            }
+        };
+        mailService = new MailService(jHipsterProperties, batchMailSender, messageSource, templateEngine, mailOutbox, Runnable::run);
+        User john = new User();
+        john.setLangKey(Constants.DEFAULT_LANGUAGE);
+        john.setLogin("john");
+        john.setEmail("john.doe@example.com");
+        User jane = new User();
+        jane.setLangKey(Constants.DEFAULT_LANGUAGE);
+        jane.setLogin("jane");
+        jane.setEmail("jane.doe@example.com");
+        User noEmail = new User();
+        noEmail.setLangKey(Constants.DEFAULT_LANGUAGE);
+        noEmail.setLogin("noemail");
+
+        mailService.sendCreationEmails(Arrays.asList(john, noEmail, jane)).block();
+
+        assertThat(batches).hasSize(1);
+        MimeMessage[] messages = batches.get(0);
+        assertThat(messages).hasSize(2);
+        assertThat(messages[0].getAllRecipients()[0]).hasToString(john.getEmail());
+        assertThat(messages[1].getAllRecipients()[0]).hasToString(jane.getEmail());
+        assertThat(messages[1].getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
+        assertThat(messages[1].getContent().toString()).isNotEmpty();
+    }
+
+    @Test
+    void testSendEmailThroughOutbox() {
+        when(mailOutbox.isEnabled()).thenReturn(true);
+        when(mailOutbox.enqueue(any())).thenReturn(Mono.empty());
+
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, true).block();
+
+        verify(mailOutbox).enqueue(mailsCaptor.capture());
+        assertThat(mailsCaptor.getValue()).hasSize(1);
+        OutboxMail mail = mailsCaptor.getValue().get(0);
+        assertThat(mail.getTo()).isEqualTo("john.doe@example.com");
+        assertThat(mail.getSubject()).isEqualTo("testSubject");
+        assertThat(mail.getContent()).isEqualTo("testContent");
+        assertThat(mail.isMultipart()).isFalse();
+        assertThat(mail.isHtml()).isTrue();
+        verify(javaMailSender, never()).send(any(MimeMessage.class));
+    }
+
+    @Test
+    void testSendEmailFailsWhenNotQueued() {
+        when(mailOutbox.isEnabled()).thenReturn(true);
+        when(mailOutbox.enqueue(any())).thenReturn(Mono.error(new IllegalStateException("outbox unavailable")));
+
+        assertThatThrownBy(() -> mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, true).block())
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testNewMailFromTemplateCachesSubject() {
+        MessageSource spiedMessageSource = spy(messageSource);
+        mailService = new MailService(jHipsterProperties, javaMailSender, spiedMessageSource, templateEngine, mailOutbox, Runnable::run);
+        User user = new User();
+        user.setLangKey(Constants.DEFAULT_LANGUAGE);
+        user.setLogin("john");
+        user.setEmail("john.doe@example.com");
+
+        OutboxMail first = mailService.newMailFromTemplate(user, "mail/activationEmail", "email.activation.title");
+        OutboxMail second = mailService.newMailFromTemplate(user, "mail/activationEmail", "email.activation.title");
+
+        assertThat(second.getSubject()).isEqualTo(first.getSubject()).isNotEmpty();
+        assertThat(second.getContent()).isEqualTo(first.getContent()).contains("john");
+        verify(spiedMessageSource, times(1)).getMessage(eq("email.activation.title"), isNull(), any(Locale.class));
+    }
+
     @Test
     void testSendPasswordResetMail() throws Exception {
         User user = new User();
         user.setLangKey(Constants.DEFAULT_LANGUAGE);
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
-        mailService.sendPasswordResetMail(user);
+        mailService.sendPasswordResetMail(user).block();
         verify(javaMailSender).send(messageCaptor.capture());
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
@@ -195,7 +287,7 @@ class MailServiceIT {
     void testSendEmailWithException() {
         doThrow(MailSendException.class).when(javaMailSender).send(any(MimeMessage.class));
         try {
-            mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+            mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false).block();
         } catch (Exception e) {
             fail("Exception shouldn't have been thrown");
         }
@@ -208,7 +300,7 @@ class MailServiceIT {
         user.setEmail("john.doe@example.com");
         for (String langKey : languages) {
             user.setLangKey(langKey);
-            mailService.sendEmailFromTemplate(user, "mail/testEmail", "email.test.title");
+            mailService.sendEmailFromTemplate(user, "mail/testEmail", "email.test.title").block();
             verify(javaMailSender, atLeastOnce()).send(messageCaptor.capture());
             MimeMessage message = messageCaptor.getValue();
 
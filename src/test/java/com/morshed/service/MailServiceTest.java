@@ -0,0 +1,102 @@
+package com.morshed.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.MessageSource;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import reactor.core.publisher.Mono;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Test class for the {@link MailService} with a saturated mail executor.
+ */
+class MailServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final CompletableFuture<Thread> sendingThread = new CompletableFuture<>();
+
+    private final CompletableFuture<Thread> queuingThread = new CompletableFuture<>();
+
+    private ThreadPoolExecutor mailExecutor;
+
+    private MailOutbox mailOutbox;
+
+    private MailService mailService;
+
+    @BeforeEach
+    public void setup() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getMail().setFrom("test@localhost");
+        JavaMailSender javaMailSender = mock(JavaMailSender.class);
+        when(javaMailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+        doAnswer(invocation -> sendingThread.complete(Thread.currentThread())).when(javaMailSender).send(any(MimeMessage.class));
+        mailOutbox = mock(MailOutbox.class);
+        when(mailOutbox.enqueue(anyList()))
+            .thenAnswer(invocation -> {
+                queuingThread.complete(Thread.currentThread());
+                return Mono.empty();
+            });
+        // Like the mail executor with its one thread and one queue slot taken
+        mailExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        mailExecutor.execute(this::awaitRelease);
+        mailExecutor.execute(this::awaitRelease);
+        mailService =
+            new MailService(
+                jHipsterProperties,
+                javaMailSender,
+                mock(MessageSource.class),
+                mock(SpringTemplateEngine.class),
+                mailOutbox,
+                mailExecutor
+            );
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        mailExecutor.shutdown();
+    }
+
+    @Test
+    void testEmailRejectedByMailExecutorIsNotSentOnCaller() throws Exception {
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false).block();
+
+        assertThat(sendingThread.get(5, TimeUnit.SECONDS)).isNotSameAs(Thread.currentThread());
+        assertThat(sendingThread.get().getName()).startsWith("boundedElastic-");
+    }
+
+    @Test
+    void testEmailRejectedByMailExecutorIsNotRenderedOnCaller() throws Exception {
+        when(mailOutbox.isEnabled()).thenReturn(true);
+
+        mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false).block();
+
+        assertThat(queuingThread.get(5, TimeUnit.SECONDS)).isNotSameAs(Thread.currentThread());
+        assertThat(queuingThread.get().getName()).startsWith("boundedElastic-");
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
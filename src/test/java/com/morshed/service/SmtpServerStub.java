@@ -0,0 +1,105 @@
+package com.morshed.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process SMTP server, answering just enough of the protocol for JavaMail to send messages to it.
+ * <p>
+ * It keeps the raw data of the messages it receives, and rejects the recipients whose address starts with
+ * {@link #REJECTED_PREFIX}.
+ */
+class SmtpServerStub implements AutoCloseable {
+
+    static final String REJECTED_PREFIX = "rejected";
+
+    private final ServerSocket serverSocket;
+
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    SmtpServerStub() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::accept, "smtp-server-stub");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    List<String> getMessages() {
+        return messages;
+    }
+
+    int getConnections() {
+        return connections.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                if (serverSocket.isClosed()) {
+                    // Accepted while closing: hang up without a greeting, as a server going down would
+                    return;
+                }
+                connections.incrementAndGet();
+                converse(socket);
+            } catch (IOException e) {
+                // Closed, or the client went away
+            }
+        }
+    }
+
+    private void converse(Socket socket) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+        reply(out, "220 localhost ESMTP");
+        String line;
+        while ((line = in.readLine()) != null) {
+            String command = line.toUpperCase(Locale.ENGLISH);
+            if (command.startsWith("RCPT TO:")) {
+                String recipient = command.substring("RCPT TO:".length()).trim();
+                reply(out, recipient.startsWith("<" + REJECTED_PREFIX.toUpperCase(Locale.ENGLISH)) ? "550 Mailbox unavailable" : "250 OK");
+            } else if (command.startsWith("DATA")) {
+                reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                StringBuilder data = new StringBuilder();
+                while ((line = in.readLine()) != null && !".".equals(line)) {
+                    data.append(line).append("\n");
+                }
+                messages.add(data.toString());
+                reply(out, "250 OK");
+            } else if (command.startsWith("QUIT")) {
+                reply(out, "221 Bye");
+                return;
+            } else if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                reply(out, "250 localhost");
+            } else {
+                // MAIL FROM, RSET and NOOP
+                reply(out, "250 OK");
+            }
+        }
+    }
+
+    private static void reply(PrintWriter out, String reply) {
+        out.print(reply + "\r\n");
+        out.flush();
+    }
+}
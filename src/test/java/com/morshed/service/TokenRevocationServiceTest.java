@@ -0,0 +1,83 @@
+package com.morshed.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.morshed.config.ApplicationProperties;
+import com.morshed.domain.RevokedToken;
+import com.morshed.repository.RefreshTokenRepository;
+import com.morshed.repository.RevokedTokenRepository;
+import com.morshed.security.jwt.TokenRevocationList;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Test class for the {@link TokenRevocationService}.
+ */
+class TokenRevocationServiceTest {
+
+    private final List<RevokedToken> stored = new CopyOnWriteArrayList<>();
+
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationList tokenRevocationList;
+
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        when(revokedTokenRepository.save(any()))
+            .thenAnswer(invocation -> {
+                RevokedToken revokedToken = invocation.getArgument(0);
+                stored.add(revokedToken);
+                return Mono.just(revokedToken);
+            });
+        when(revokedTokenRepository.findAllByRevokedAtGreaterThanEqual(any()))
+            .thenAnswer(invocation -> {
+                Instant since = invocation.getArgument(0);
+                return Flux.defer(() -> Flux.fromStream(stored.stream().filter(token -> !token.getRevokedAt().isBefore(since))));
+            });
+        tokenRevocationList = new TokenRevocationList(applicationProperties);
+        tokenRevocationService =
+            new TokenRevocationService(
+                revokedTokenRepository,
+                mock(RefreshTokenRepository.class),
+                tokenRevocationList,
+                null,
+                applicationProperties,
+                new JHipsterProperties()
+            );
+    }
+
+    @Test
+    void testRevocationDuringRebuildIsKept() {
+        tokenRevocationService.revokeToken("revoked-before-rebuild", Instant.now().plus(1, ChronoUnit.HOURS)).block();
+        when(revokedTokenRepository.findAllByExpiresAtAfter(any()))
+            .thenReturn(
+                Flux.defer(() -> {
+                    // The query reads the revocations before this one is made
+                    List<RevokedToken> found = new ArrayList<>(stored);
+                    return tokenRevocationService
+                        .revokeToken("revoked-during-rebuild", Instant.now().plus(1, ChronoUnit.HOURS))
+                        .thenMany(Flux.fromIterable(found));
+                })
+            );
+
+        tokenRevocationService.refresh().block();
+
+        assertThat(stored).hasSize(2);
+        assertThat(tokenRevocationList.size()).isEqualTo(2);
+    }
+}
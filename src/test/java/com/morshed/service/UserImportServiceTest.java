@@ -0,0 +1,171 @@
+package com.morshed.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.morshed.config.ApplicationProperties;
+import com.morshed.domain.User;
+import com.morshed.repository.AuthorityRepository;
+import com.morshed.repository.UserRepository;
+import com.morshed.security.PasswordHashingRejectedException;
+import com.morshed.service.dto.AdminUserDTO;
+import com.morshed.service.dto.UserImportResult;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Test class for the {@link UserImportService}.
+ */
+class UserImportServiceTest {
+
+    private UserService userService;
+
+    private UserRepository userRepository;
+
+    private AuthorityRepository authorityRepository;
+
+    private MailService mailService;
+
+    private ApplicationProperties applicationProperties;
+
+    private final AtomicInteger rejections = new AtomicInteger();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final List<ThreadPoolExecutor> executors = new ArrayList<>();
+
+    private final List<Throwable> handledErrors = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        userService = mock(UserService.class);
+        userRepository = mock(UserRepository.class);
+        authorityRepository = mock(AuthorityRepository.class);
+        mailService = mock(MailService.class);
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().getPasswordHashing().setRetryAfter(Duration.ofMillis(1));
+        when(authorityRepository.findAll()).thenReturn(Flux.empty());
+        when(userService.newManagedUser(any(), any()))
+            .thenAnswer(invocation -> {
+                User user = new User();
+                user.setLogin(invocation.<AdminUserDTO>getArgument(0).getLogin());
+                return user;
+            });
+        when(userRepository.insertAllSkippingFailures(anyList())).thenReturn(Mono.just(Collections.emptyMap()));
+        when(mailService.sendCreationEmails(anyList())).thenReturn(Mono.empty());
+        Schedulers.onHandleError((thread, e) -> handledErrors.add(e));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Schedulers.resetOnHandleError();
+        release.countDown();
+        executors.forEach(ThreadPoolExecutor::shutdown);
+    }
+
+    @Test
+    void testRowsRejectedByTheHashingSchedulerAreReported() {
+        ThreadPoolExecutor executor = saturatedExecutor(false);
+
+        List<UserImportResult> results = importService(Schedulers.fromExecutorService(executor))
+            .importUsers(Flux.just(user("first"), user("second")))
+            .collectList()
+            .block();
+
+        assertThat(results).extracting(UserImportResult::getRow).containsExactly(1L, 2L);
+        assertThat(results).extracting(UserImportResult::getStatus).containsOnly(UserImportResult.Status.UNAVAILABLE);
+        verify(userRepository, never()).insertAllSkippingFailures(anyList());
+        verify(mailService, never()).sendCreationEmails(anyList());
+        assertThat(rejections).hasPositiveValue();
+        assertThat(handledErrors).isEmpty();
+    }
+
+    @Test
+    void testRejectedRowsAreRetried() {
+        applicationProperties.getSecurity().getPasswordHashing().setRetryAfter(Duration.ofMillis(50));
+        ThreadPoolExecutor executor = saturatedExecutor(true);
+
+        List<UserImportResult> results = importService(Schedulers.fromExecutorService(executor))
+            .importUsers(Flux.just(user("first")))
+            .collectList()
+            .block();
+
+        assertThat(rejections).hasPositiveValue();
+        assertThat(results).extracting(UserImportResult::getStatus).containsExactly(UserImportResult.Status.CREATED);
+        verify(mailService).sendCreationEmails(anyList());
+        assertThat(handledErrors).isEmpty();
+    }
+
+    /**
+     * Returns an executor like the password hashing one, with its one thread and one queue slot taken, until the first
+     * rejection if {@code freedOnRejection} and otherwise until the end of the test.
+     */
+    private ThreadPoolExecutor saturatedExecutor(boolean freedOnRejection) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            1,
+            1,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1),
+            (task, rejectingExecutor) -> {
+                rejections.incrementAndGet();
+                if (freedOnRejection) {
+                    release.countDown();
+                }
+                throw new PasswordHashingRejectedException("The password hashing queue is full");
+            }
+        );
+        executors.add(executor);
+        executor.execute(this::awaitRelease);
+        executor.execute(this::awaitRelease);
+        return executor;
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private UserImportService importService(Scheduler passwordHashingScheduler) {
+        return new UserImportService(
+            userService,
+            userRepository,
+            authorityRepository,
+            mailService,
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            passwordHashingScheduler,
+            applicationProperties
+        );
+    }
+
+    private static AdminUserDTO user(String login) {
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(login);
+        userDTO.setEmail(login + "@localhost");
+        return userDTO;
+    }
+}
@@ -127,6 +127,19 @@ class UserServiceIT {
         userRepository.delete(user).block();
     }
 
+    @Test
+    void assertThatActivationClearsExpiryDate() {
+        user.setActivated(false);
+        user.setActivationKey(RandomUtil.generateActivationKey());
+        user.setExpireAt(Instant.now().plus(3, ChronoUnit.DAYS));
+        userRepository.save(user).block();
+
+        Optional<User> maybeUser = userService.activateRegistration(user.getActivationKey()).blockOptional();
+        assertThat(maybeUser).isPresent();
+        assertThat(maybeUser.orElse(null).isActivated()).isTrue();
+        assertThat(userRepository.findOneByLogin(DEFAULT_LOGIN).block().getExpireAt()).isNull();
+    }
+
     @Test
     void assertThatNotActivatedUsersWithNotNullActivationKeyCreatedBefore3DaysAreDeleted() {
         Instant now = Instant.now();
@@ -141,7 +154,7 @@ class UserServiceIT {
             .collectList()
             .block();
         assertThat(users).isNotEmpty();
-        userService.removeNotActivatedUsers();
+        assertThat(userService.removeNotActivatedUsersReactively().block()).isEqualTo(1);
         users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo).collectList().block();
         assertThat(users).isEmpty();
     }
@@ -159,7 +172,7 @@ class UserServiceIT {
             .collectList()
             .block();
         assertThat(users).isEmpty();
-        userService.removeNotActivatedUsers();
+        assertThat(userService.removeNotActivatedUsersReactively().block()).isZero();
         Optional<User> maybeDbUser = userRepository.findById(dbUser.getId()).blockOptional();
         assertThat(maybeDbUser).contains(dbUser);
     }
@@ -119,6 +119,16 @@ class UserMapperTest {
         assertThat(user.getAuthorities()).isEmpty();
     }
 
+    @Test
+    void userDTOToUserMapShouldNormalizeEmail() {
+        userDto.setEmail("John.Doe@LocalHost");
+
+        User user = userMapper.userDTOToUser(userDto);
+
+        assertThat(user.getEmail()).isEqualTo("John.Doe@LocalHost");
+        assertThat(user.getNormalizedEmail()).isEqualTo("john.doe@localhost");
+    }
+
     @Test
     void userDTOToUserMapWithNullUserShouldReturnNull() {
         assertThat(userMapper.userDTOToUser(null)).isNull();
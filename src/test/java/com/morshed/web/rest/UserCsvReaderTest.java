@@ -0,0 +1,51 @@
+package com.morshed.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.morshed.security.AuthoritiesConstants;
+import com.morshed.service.dto.AdminUserDTO;
+import com.morshed.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+class UserCsvReaderTest {
+
+    @Test
+    void testReadUsers() {
+        Flux<String> lines = Flux.just(
+            "email,login,lastName,authorities",
+            "john.doe@localhost,john,\"Doe, Jr.\",ROLE_USER ROLE_ADMIN",
+            "",
+            "jane.doe@localhost,jane"
+        );
+
+        List<AdminUserDTO> users = UserCsvReader.read(lines).collectList().block();
+
+        assertThat(users).hasSize(2);
+        assertThat(users.get(0).getLogin()).isEqualTo("john");
+        assertThat(users.get(0).getEmail()).isEqualTo("john.doe@localhost");
+        assertThat(users.get(0).getLastName()).isEqualTo("Doe, Jr.");
+        assertThat(users.get(0).getAuthorities()).containsExactlyInAnyOrder(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN);
+        assertThat(users.get(1).getLogin()).isEqualTo("jane");
+        assertThat(users.get(1).getLastName()).isNull();
+        assertThat(users.get(1).getAuthorities()).isNull();
+    }
+
+    @Test
+    void testParseQuotedValues() {
+        assertThat(UserCsvReader.parse("a,\"b,c\",\"say \"\"hi\"\"\",")).containsExactly("a", "b,c", "say \"hi\"", "");
+    }
+
+    @Test
+    void testUnknownColumnIsRejected() {
+        assertThatThrownBy(() -> UserCsvReader.read(Flux.just("login,password", "john,secret")).blockLast())
+            .isInstanceOf(BadRequestAlertException.class);
+    }
+
+    @Test
+    void testEmptyInput() {
+        assertThat(UserCsvReader.read(Flux.empty()).collectList().block()).isEmpty();
+    }
+}
@@ -1,12 +1,21 @@
 package com.morshed.web.rest;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.jayway.jsonpath.JsonPath;
 import com.morshed.IntegrationTest;
+import com.morshed.config.ApplicationProperties;
 import com.morshed.domain.User;
+import com.morshed.repository.UserCache;
 import com.morshed.repository.UserRepository;
 import com.morshed.web.rest.vm.LoginVM;
+import com.morshed.web.rest.vm.RefreshTokenVM;
+import java.nio.charset.StandardCharsets;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -21,6 +30,12 @@ class UserJWTControllerIT {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -103,4 +118,161 @@ class UserJWTControllerIT {
             .jsonPath("$.id_token")
             .doesNotExist();
     }
+
+    @Test
+    void testAuthorizeIsRateLimitedPerLogin() throws Exception {
+        LoginVM login = new LoginVM();
+        login.setUsername("user-jwt-controller-rate-limited");
+        login.setPassword("wrong password");
+        int capacity = applicationProperties.getSecurity().getLoginRateLimit().getPerLogin().getCapacity();
+        for (int i = 0; i < capacity; i++) {
+            webTestClient
+                .post()
+                .uri("/api/authenticate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(TestUtil.convertObjectToJsonBytes(login))
+                .exchange()
+                .expectStatus()
+                .isUnauthorized();
+        }
+        webTestClient
+            .post()
+            .uri("/api/authenticate")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(login))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+            .expectHeader()
+            .exists(HttpHeaders.RETRY_AFTER)
+            .expectBody()
+            .jsonPath("$.id_token")
+            .doesNotExist();
+    }
+
+    @Test
+    void testRefreshRotatesRefreshToken() throws Exception {
+        User user = new User();
+        user.setLogin("user-jwt-controller-refresh");
+        user.setEmail("user-jwt-controller-refresh@example.com");
+        user.setActivated(true);
+        user.setPassword(passwordEncoder.encode("test"));
+
+        userRepository.save(user).block();
+
+        LoginVM login = new LoginVM();
+        login.setUsername("user-jwt-controller-refresh");
+        login.setPassword("test");
+        String refreshToken = JsonPath.read(
+            new String(
+                webTestClient
+                    .post()
+                    .uri("/api/authenticate")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(TestUtil.convertObjectToJsonBytes(login))
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody()
+                    .returnResult()
+                    .getResponseBody(),
+                StandardCharsets.UTF_8
+            ),
+            "$.refresh_token"
+        );
+
+        RefreshTokenVM refresh = new RefreshTokenVM();
+        refresh.setRefreshToken(refreshToken);
+        webTestClient
+            .post()
+            .uri("/api/authenticate/refresh")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(refresh))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueMatches("Authorization", "Bearer .+")
+            .expectBody()
+            .jsonPath("$.id_token")
+            .isNotEmpty()
+            .jsonPath("$.refresh_token")
+            .value(newRefreshToken -> assertThat(newRefreshToken).isNotEqualTo(refreshToken));
+
+        // A refresh token can only be used once
+        webTestClient
+            .post()
+            .uri("/api/authenticate/refresh")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(refresh))
+            .exchange()
+            .expectStatus()
+            .isUnauthorized();
+    }
+
+    @Test
+    void testRefreshFailsForUserDeactivatedWhileCached() throws Exception {
+        User user = new User();
+        user.setLogin("user-jwt-controller-refresh-deactivated");
+        user.setEmail("user-jwt-controller-refresh-deactivated@example.com");
+        user.setActivated(true);
+        user.setPassword(passwordEncoder.encode("test"));
+
+        userRepository.save(user).block();
+
+        LoginVM login = new LoginVM();
+        login.setUsername("user-jwt-controller-refresh-deactivated");
+        login.setPassword("test");
+        String refreshToken = JsonPath.read(
+            new String(
+                webTestClient
+                    .post()
+                    .uri("/api/authenticate")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(TestUtil.convertObjectToJsonBytes(login))
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody()
+                    .returnResult()
+                    .getResponseBody(),
+                StandardCharsets.UTF_8
+            ),
+            "$.refresh_token"
+        );
+
+        // Deactivated as if on another node, which leaves the user cached on this one
+        assertThat(userCache.findOneByLogin(user.getLogin()).block().isActivated()).isTrue();
+        User deactivated = userRepository.findOneByLogin(user.getLogin()).block();
+        deactivated.setActivated(false);
+        userRepository.save(deactivated).block();
+        assertThat(userCache.findOneByLogin(user.getLogin()).block().isActivated()).isTrue();
+
+        RefreshTokenVM refresh = new RefreshTokenVM();
+        refresh.setRefreshToken(refreshToken);
+        webTestClient
+            .post()
+            .uri("/api/authenticate/refresh")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(refresh))
+            .exchange()
+            .expectStatus()
+            .isUnauthorized();
+    }
+
+    @Test
+    void testRefreshFailsWithUnknownToken() throws Exception {
+        RefreshTokenVM refresh = new RefreshTokenVM();
+        refresh.setRefreshToken("unknown-refresh-token");
+        webTestClient
+            .post()
+            .uri("/api/authenticate/refresh")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(refresh))
+            .exchange()
+            .expectStatus()
+            .isUnauthorized()
+            .expectHeader()
+            .doesNotExist("Authorization");
+    }
 }
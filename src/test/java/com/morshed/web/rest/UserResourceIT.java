@@ -9,6 +9,7 @@ import com.morshed.repository.UserRepository;
 import com.morshed.security.AuthoritiesConstants;
 import com.morshed.service.dto.AdminUserDTO;
 import com.morshed.service.dto.UserDTO;
+import com.morshed.service.dto.UserImportResult;
 import com.morshed.service.mapper.UserMapper;
 import com.morshed.web.rest.vm.ManagedUserVM;
 import java.time.Instant;
@@ -19,8 +20,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
 /**
@@ -255,6 +258,168 @@ class UserResourceIT {
         assertThat(foundUser.getLangKey()).isEqualTo(DEFAULT_LANGKEY);
     }
 
+    @Test
+    void getAllUsersWithCursor() {
+        // Initialize the database
+        userRepository.save(user).block();
+        for (int i = 0; i < 4; i++) {
+            User otherUser = createEntity();
+            otherUser.setLogin(DEFAULT_LOGIN + i);
+            otherUser.setEmail(i + DEFAULT_EMAIL);
+            userRepository.save(otherUser).block();
+        }
+        List<String> expectedLogins = userRepository.findAll().map(User::getLogin).sort(Comparator.reverseOrder()).collectList().block();
+
+        // Walk through all the users, one page at a time
+        List<String> logins = new ArrayList<>();
+        String cursor = "";
+        while (cursor != null) {
+            String pageCursor = cursor;
+            EntityExchangeResult<List<AdminUserDTO>> result = webTestClient
+                .get()
+                .uri(uriBuilder ->
+                    uriBuilder
+                        .path("/api/admin/users")
+                        .queryParam("sort", "login,DESC")
+                        .queryParam("size", 2)
+                        .queryParam("cursor", pageCursor)
+                        .build()
+                )
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(AdminUserDTO.class)
+                .returnResult();
+            result.getResponseBody().forEach(foundUser -> logins.add(foundUser.getLogin()));
+            cursor = result.getResponseHeaders().getFirst(CursorPagination.HEADER_NEXT_CURSOR);
+        }
+
+        assertThat(logins).isEqualTo(expectedLogins);
+    }
+
+    @Test
+    void getAllUsersWithInvalidCursor() {
+        webTestClient
+            .get()
+            .uri("/api/admin/users?sort=login,DESC&cursor=invalid")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest()
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.invalidcursor");
+    }
+
+    @Test
+    void exportUsers() {
+        // Initialize the database
+        userRepository.save(user).block();
+        User otherUser = createEntity();
+        otherUser.setLogin(UPDATED_LOGIN);
+        otherUser.setEmail(UPDATED_EMAIL);
+        userRepository.save(otherUser).block();
+        List<String> expectedIds = userRepository.findAll(Sort.by("id")).map(User::getId).collectList().block();
+
+        List<AdminUserDTO> exportedUsers = webTestClient
+            .get()
+            .uri("/api/admin/export/users")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(AdminUserDTO.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(exportedUsers).extracting(AdminUserDTO::getId).isEqualTo(expectedIds);
+
+        // Resume the export after the first user
+        List<AdminUserDTO> remainingUsers = webTestClient
+            .get()
+            .uri("/api/admin/export/users?after={id}", expectedIds.get(0))
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(AdminUserDTO.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(remainingUsers).extracting(AdminUserDTO::getId).isEqualTo(expectedIds.subList(1, expectedIds.size()));
+    }
+
+    @Test
+    void importUsers() {
+        // Initialize the database
+        userRepository.save(user).block();
+        String body = String.join(
+            "\n",
+            "{\"login\": \"" + UPDATED_LOGIN + "\", \"email\": \"" + UPDATED_EMAIL + "\", \"authorities\": [\"ROLE_USER\"]}",
+            "{\"login\": \"" + DEFAULT_LOGIN + "\", \"email\": \"another@localhost\"}",
+            "{\"login\": \"not a login\"}",
+            "{\"login\": \"another\", \"email\": \"" + UPDATED_EMAIL.toUpperCase() + "\"}"
+        );
+
+        List<UserImportResult> results = webTestClient
+            .post()
+            .uri("/api/admin/import/users")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(UserImportResult.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(results).extracting(UserImportResult::getRow).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(results)
+            .extracting(UserImportResult::getStatus)
+            .containsExactly(
+                UserImportResult.Status.CREATED,
+                UserImportResult.Status.CONFLICT,
+                UserImportResult.Status.INVALID,
+                UserImportResult.Status.CONFLICT
+            );
+        assertThat(results.get(1).getMessage()).isEqualTo("error.userexists");
+        assertThat(results.get(2).getMessage()).startsWith("login: ");
+        assertThat(results.get(3).getMessage()).isEqualTo("error.emailexists");
+
+        User importedUser = userRepository.findOneByLogin(UPDATED_LOGIN).block();
+        assertThat(importedUser.getEmail()).isEqualTo(UPDATED_EMAIL);
+        assertThat(importedUser.isActivated()).isTrue();
+        assertThat(importedUser.getResetKey()).isNotNull();
+        assertThat(importedUser.getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.USER);
+        assertPersistedUsers(users -> assertThat(users).hasSize(2));
+    }
+
+    @Test
+    void importUsersFromCsv() {
+        String body = String.join("\n", "login,email,firstName", UPDATED_LOGIN + "," + UPDATED_EMAIL + "," + UPDATED_FIRSTNAME, "");
+
+        List<UserImportResult> results = webTestClient
+            .post()
+            .uri("/api/admin/import/users")
+            .contentType(MediaType.parseMediaType("text/csv"))
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(UserImportResult.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(results).extracting(UserImportResult::getStatus).containsExactly(UserImportResult.Status.CREATED);
+        assertThat(userRepository.findOneByLogin(UPDATED_LOGIN).block().getFirstName()).isEqualTo(UPDATED_FIRSTNAME);
+    }
+
     @Test
     void getUser() {
         // Initialize the database
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -36,6 +37,72 @@ class ExceptionTranslatorIT {
             .isEqualTo(ErrorConstants.ERR_CONCURRENCY_FAILURE);
     }
 
+    @Test
+    void testDuplicateLogin() {
+        webTestClient
+            .get()
+            .uri("/api/exception-translator-test/duplicate-login")
+            .exchange()
+            .expectStatus()
+            .isBadRequest()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+            .expectBody()
+            .jsonPath("$.type")
+            .isEqualTo(ErrorConstants.LOGIN_ALREADY_USED_TYPE.toString())
+            .jsonPath("$.message")
+            .isEqualTo("error.userexists");
+    }
+
+    @Test
+    void testDuplicateKey() {
+        webTestClient
+            .get()
+            .uri("/api/exception-translator-test/duplicate-key")
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.CONFLICT)
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.http.409");
+    }
+
+    @Test
+    void testRejectedExecution() {
+        webTestClient
+            .get()
+            .uri("/api/exception-translator-test/rejected-execution")
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+            .expectHeader()
+            .doesNotExist(HttpHeaders.RETRY_AFTER)
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.http.503");
+    }
+
+    @Test
+    void testPasswordHashingRejected() {
+        webTestClient
+            .get()
+            .uri("/api/exception-translator-test/password-hashing-rejected")
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+            .expectHeader()
+            .valueEquals(HttpHeaders.RETRY_AFTER, "1")
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.http.503");
+    }
+
     @Test
     void testMethodArgumentNotValid() {
         webTestClient
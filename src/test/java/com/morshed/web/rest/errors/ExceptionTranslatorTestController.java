@@ -1,12 +1,16 @@
 package com.morshed.web.rest.errors;
 
+import com.morshed.security.PasswordHashingRejectedException;
+import java.util.concurrent.RejectedExecutionException;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.Exceptions;
 
 @RestController
 @RequestMapping("/api/exception-translator-test")
@@ -17,6 +21,26 @@ public class ExceptionTranslatorTestController {
         throw new ConcurrencyFailureException("test concurrency failure");
     }
 
+    @GetMapping("/rejected-execution")
+    public void rejectedExecution() {
+        throw new RejectedExecutionException("test rejected execution");
+    }
+
+    @GetMapping("/password-hashing-rejected")
+    public void passwordHashingRejected() {
+        throw Exceptions.failWithRejected(new PasswordHashingRejectedException("test password hashing rejected"));
+    }
+
+    @GetMapping("/duplicate-login")
+    public void duplicateLogin() {
+        throw new DuplicateKeyException("E11000 duplicate key error collection: dietics.jhi_user index: login dup key");
+    }
+
+    @GetMapping("/duplicate-key")
+    public void duplicateKey() {
+        throw new DuplicateKeyException("E11000 duplicate key error collection: dietics.jhi_other index: other dup key: { other: 1 }");
+    }
+
     @PostMapping("/method-argument")
     public void methodArgument(@Valid @RequestBody TestDTO testDTO) {}
 